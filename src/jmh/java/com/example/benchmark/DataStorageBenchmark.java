@@ -0,0 +1,83 @@
+package com.example.benchmark;
+
+import com.example.model.Event;
+import com.example.model.Note;
+import com.example.service.DataStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Load and save throughput of {@link DataStorage} for growing data sets. Run with {@code ./gradlew jmh};
+ * the gc profiler is enabled in the build, so results include the allocation rate per operation.
+ *
+ * <p>Files are written to a temporary data directory, so the project's own notes and events are left alone.
+ * Storage options can be passed to the benchmark JVM to compare formats, e.g.
+ * {@code ./gradlew jmh -PjmhJvmArgs=-Dnoteplanner.format=binary}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataStorageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private Path dataDirectory;
+    private List<Note> notes;
+    private List<Event> events;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        dataDirectory = Files.createTempDirectory("noteplanner-jmh");
+        System.setProperty("noteplanner.data.dir", dataDirectory.toString());
+        notes = SyntheticData.notes(records);
+        events = SyntheticData.events(records);
+        DataStorage.saveNotes(notes);
+        DataStorage.saveEvents(events);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dataDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Note> loadNotes() {
+        return DataStorage.loadNotes();
+    }
+
+    @Benchmark
+    public List<Event> loadEvents() {
+        return DataStorage.loadEvents();
+    }
+
+    @Benchmark
+    public void saveNotes() throws IOException {
+        DataStorage.saveNotes(notes);
+    }
+
+    @Benchmark
+    public void saveEvents() throws IOException {
+        DataStorage.saveEvents(events);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.benchmark;
+
+import com.example.model.Category;
+import com.example.model.Event;
+import com.example.model.Note;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates notes and events shaped like the shipped {@code notes.json} and {@code events.json}: Polish
+ * titles and text, three tags per item and every {@link Category} in turn. Generation is seeded, so every
+ * run of a benchmark sees the same data.
+ */
+public final class SyntheticData {
+
+    private static final String[] EVENT_TITLES = {
+            "Spotkanie z klientem", "Praca nad raportem", "Wizyta u lekarza", "Spotkanie zespołu",
+            "Konferencja branżowa", "Zakupy spożywcze", "Prezentacja projektu", "Prace ogrodowe",
+            "Przygotowanie budżetu", "Prywatne wyjście do kina", "Spotkanie rodzinne", "Sprzątanie kuchni",
+            "Przegląd techniczny samochodu", "Spotkanie z inwestorem", "Czas na książkę", "Wizyta u dentysty"
+    };
+    private static final String[] DESCRIPTIONS = {
+            "Omówienie projektu.", "Przygotowanie raportu kwartalnego.", "Kontrola u lekarza.",
+            "Omówienie bieżących zadań.", "Przygotowanie prezentacji na konferencję.", "Prezentacja biznesplanu.",
+            "Przycinanie krzewów.", "Raport do zarządu.", "Gra na gitarze.", "Relaksacyjny spacer po parku.",
+            "Obiad u rodziny.", "Strzyżenie włosów.", "Udział w konferencji.", "Kontrola zębów."
+    };
+    private static final String[] NOTE_TITLES = {
+            "Pomysły na romantyczną randkę", "Pomysły na poprawę wydajności", "Notatki ze spotkania",
+            "Plan tygodnia", "Plan porządków", "Lista książek do przeczytania", "Przygotowania do świąt",
+            "Plan wyjazdu na weekend", "Raport postępów projektu", "Zakupy do ogrodu", "Harmonogram spotkań",
+            "Lista rzeczy do zrobienia na wakacjach"
+    };
+    private static final String[] NOTE_LINES = {
+            "- Kolacja przy świecach", "- Spacer po plaży", "- Automatyzacja procesów", "- Optymalizacja działań",
+            "- Zaktualizować specyfikację", "- Przygotować prototyp", "- Rozkład zajęć", "- Spotkania",
+            "- Zakupy spożywcze", "- Sprzątanie garażu", "Spotkanie z klientem dotyczącym projektu X.", "Zadania:"
+    };
+    private static final String[] TAGS = {
+            "biznes", "budżet", "dentysta", "dom", "finanse", "hobby", "klient", "koncert", "konferencja",
+            "książka", "kuchnia", "lekarz", "marketing", "oferta", "park", "plan", "praca", "prezentacja",
+            "projekt", "raport", "relaks", "rodzina", "spotkanie", "tydzień", "wydajność", "zakupy", "zdrowie"
+    };
+    private static final Category[] CATEGORIES = Category.values();
+    private static final LocalDateTime FIRST_EVENT = LocalDateTime.of(2024, 8, 1, 8, 0);
+
+    private SyntheticData() {
+    }
+
+    public static List<Note> notes(int count) {
+        Random random = new Random(count);
+        List<Note> notes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = pick(random, NOTE_TITLES);
+            StringBuilder content = new StringBuilder(title).append('.');
+            for (int line = 0; line < 2 + random.nextInt(3); line++) {
+                content.append('\n').append(pick(random, NOTE_LINES));
+            }
+            notes.add(new Note(title, content.toString(), tags(random), CATEGORIES[i % CATEGORIES.length]));
+        }
+        return notes;
+    }
+
+    /**
+     * Events are spread over consecutive days, a few per day, each lasting one or two hours.
+     */
+    public static List<Event> events(int count) {
+        Random random = new Random(count);
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = FIRST_EVENT.plusDays(i / 4).plusHours(2L * (i % 4)).plusMinutes(30L * random.nextInt(2));
+            events.add(new Event(pick(random, EVENT_TITLES), start, start.plusHours(1 + random.nextInt(2)),
+                    pick(random, DESCRIPTIONS), tags(random), CATEGORIES[i % CATEGORIES.length]));
+        }
+        return events;
+    }
+
+    /**
+     * Three distinct tags, comma separated as typed in the edit windows.
+     */
+    private static String tags(Random random) {
+        int first = random.nextInt(TAGS.length);
+        int second = (first + 1 + random.nextInt(TAGS.length - 1)) % TAGS.length;
+        int third = second;
+        while (third == first || third == second) {
+            third = random.nextInt(TAGS.length);
+        }
+        return TAGS[first] + ", " + TAGS[second] + ", " + TAGS[third];
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -1,6 +1,7 @@
 package com.example;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
@@ -8,9 +9,12 @@ import javafx.stage.Stage;
 import com.example.controller.MainController;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 
 public class Main extends Application {
 
+    private static final String STARTUP_TIMING_PROPERTY = "noteplanner.startup.timing";
+
     private MainController mainController;
 
     @Override
@@ -22,12 +26,39 @@ public class Main extends Application {
         primaryStage.setMinHeight(50);
 
         primaryStage.setTitle("Note Planner");
-        primaryStage.setScene(new Scene(root, 1200, 800));
+        Scene scene = new Scene(root, 1200, 800);
+        if (Boolean.getBoolean(STARTUP_TIMING_PROPERTY)) {
+            reportFirstFrame(scene);
+        }
+        primaryStage.setScene(scene);
         primaryStage.show();
 
         mainController = loader.getController();
     }
 
+    /**
+     * Prints the time from JVM start to the first rendered frame. Data is loaded in the background, so this
+     * should not depend on how many notes and events are stored. Enabled with
+     * {@code -Dnoteplanner.startup.timing=true}.
+     */
+    private void reportFirstFrame(Scene scene) {
+        Runnable listener = new Runnable() {
+            private boolean reported;
+
+            @Override
+            public void run() {
+                if (reported) {
+                    return;
+                }
+                reported = true;
+                // Removed later, the scene is still iterating over its listeners
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                System.out.println("First frame after " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
     @Override
     public void stop() throws Exception {
         if (mainController != null) {
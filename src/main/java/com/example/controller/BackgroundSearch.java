@@ -0,0 +1,140 @@
+package com.example.controller;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.util.Duration;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs searches on a background thread, so typing does not wait for them. A search starts once no new input
+ * has arrived for the debounce window; newer input cancels the search in flight, and only the result of the
+ * latest search is published back on the FX thread.
+ *
+ * <p>The debounce window is set in milliseconds with the {@code noteplanner.search.debounce} system property.
+ * With {@code -Dnoteplanner.search.latency=true}, the time from the input to the first frame showing its
+ * result is printed for every search.
+ */
+class BackgroundSearch<Q, R> {
+
+    private static final String DEBOUNCE_PROPERTY = "noteplanner.search.debounce";
+    private static final String LATENCY_PROPERTY = "noteplanner.search.latency";
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition debounce = new PauseTransition(Duration.millis(Long.getLong(DEBOUNCE_PROPERTY, DEFAULT_DEBOUNCE_MILLIS)));
+    private final Function<Q, R> search;
+    private final Consumer<R> publish;
+    private final boolean logLatency = Boolean.getBoolean(LATENCY_PROPERTY);
+    private final Runnable frameListener = this::framePainted;
+    private Future<?> running;
+    private long sequence;
+    private long inputTime;
+    private long searchNanos;
+    private boolean paintPending;
+
+    /**
+     * @param search  runs a query; called in the background, and should call {@link #checkCancelled()} while it works
+     * @param publish shows a result; called on the FX thread, only for the latest query
+     * @param owner   a node of the scene showing the results, whose frames are timed when latency is logged
+     */
+    BackgroundSearch(Function<Q, R> search, Consumer<R> publish, Node owner) {
+        this.search = search;
+        this.publish = publish;
+        if (logLatency) {
+            owner.sceneProperty().addListener((observable, oldScene, newScene) -> {
+                if (oldScene != null) {
+                    oldScene.removePostLayoutPulseListener(frameListener);
+                }
+                if (newScene != null) {
+                    newScene.addPostLayoutPulseListener(frameListener);
+                }
+            });
+            Scene scene = owner.getScene();
+            if (scene != null) {
+                scene.addPostLayoutPulseListener(frameListener);
+            }
+        }
+    }
+
+    /**
+     * Searches for the query once the input has settled. The query is taken when the search starts, so it
+     * reflects the data as it is then; an earlier request that has not been published is dropped.
+     */
+    void request(Supplier<Q> query) {
+        cancel();
+        inputTime = System.nanoTime();
+        debounce.setOnFinished(finished -> start(query.get()));
+        debounce.playFromStart();
+    }
+
+    /**
+     * Drops the pending request and the search in flight, if any
+     */
+    void cancel() {
+        sequence++;
+        debounce.stop();
+        paintPending = false;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    private void start(Q query) {
+        long startedSequence = sequence;
+        running = executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                R result = search.apply(query);
+                long nanos = System.nanoTime() - start;
+                Platform.runLater(() -> {
+                    // A newer request arrived while the search ran
+                    if (startedSequence != sequence) {
+                        return;
+                    }
+                    running = null;
+                    searchNanos = nanos;
+                    paintPending = logLatency;
+                    publish.accept(result);
+                });
+            } catch (CancellationException cancelled) {
+                // Replaced by a newer search
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Stops a search that was cancelled by newer input. Called by the search function on the search thread.
+     */
+    static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Runs after the layout of every frame, which is rendered right after it
+     */
+    private void framePainted() {
+        if (paintPending) {
+            paintPending = false;
+            System.out.println("Search took " + searchNanos / 1_000_000 + " ms, painted "
+                    + (System.nanoTime() - inputTime) / 1_000_000 + " ms after the input");
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.controller;
+
+import com.example.layout.TimelineLayout;
+import com.example.model.Category;
+import com.example.model.Event;
+import javafx.geometry.Insets;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.function.Consumer;
+
+/**
+ * Draws the month, week and day views onto a single {@link Canvas} instead of creating a node per event, for
+ * calendars with many events per day. The canvas is only redrawn when different data is shown or its size
+ * changes; scrolling the week view moves the already drawn image. Double-clicks are mapped back to the event
+ * under the pointer, so editing works as in the node-based views.
+ *
+ * <p>Colors and sizes follow the rules of {@link Styles}, which cannot be applied to canvas drawing.
+ */
+class CalendarCanvas {
+
+    private static final double HEADER_HEIGHT = 30;
+    private static final double MIN_DAY_WIDTH = 100;
+    private static final double HOUR_HEIGHT = 60;
+    private static final double TIME_COLUMN_WIDTH = 50;
+    private static final double DAY_NUMBER_HEIGHT = 18;
+    private static final double CHIP_HEIGHT = 17;
+    private static final double CHIP_GAP = 2;
+    private static final double PADDING = 2;
+    private static final int WEEKS = 6;
+
+    private static final Color GRID_COLOR = Color.web("#cccccc");
+    private static final Color TEXT_COLOR = Color.web("#333333");
+    private static final Color ADJACENT_MONTH_COLOR = Color.web("#aaaaaa");
+    private static final Color[] CATEGORY_COLORS = new Color[Category.values().length];
+    private static final Color NO_CATEGORY_COLOR = Color.web(Category.OTHER.getColor());
+    private static final Font SMALL_FONT = Font.font(12);
+    private static final Font HEADER_FONT = Font.font(14);
+    private static final Font CHIP_FONT = Font.font(null, FontWeight.NORMAL, 11);
+
+    static {
+        for (Category category : Category.values()) {
+            CATEGORY_COLORS[category.ordinal()] = Color.web(category.getColor());
+        }
+    }
+
+    private final ScrollPane scrollPane;
+    private final CanvasPane pane = new CanvasPane();
+    private final Canvas canvas = new Canvas();
+    private final Consumer<Event> openEvent;
+    private Locale locale = Locale.getDefault();
+
+    // Month mode: the events of each of the 42 cells and how many of them were drawn as chips
+    private boolean monthMode = true;
+    private LocalDate month;
+    private LocalDate firstShown;
+    private final List<List<Event>> eventsPerCell = new ArrayList<>(Collections.nCopies(WEEKS * 7, List.of()));
+    private final int[] drawnChips = new int[WEEKS * 7];
+
+    // Week and day mode
+    private LocalDate firstDay;
+    private int columnCount = 7;
+    private List<TimelineLayout.Block> blocks = List.of();
+
+    CalendarCanvas(Consumer<Event> openEvent) {
+        this.openEvent = openEvent;
+        pane.getChildren().add(canvas);
+
+        scrollPane = new ScrollPane(pane);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setPadding(new Insets(5, 5, 5, 5));
+
+        canvas.setOnMouseClicked(mouseEvent -> {
+            if (mouseEvent.getButton() == MouseButton.PRIMARY && mouseEvent.getClickCount() == 2) {
+                Event event = monthMode ? monthEventAt(mouseEvent.getX(), mouseEvent.getY()) : blockEventAt(mouseEvent.getX(), mouseEvent.getY());
+                if (event != null) {
+                    openEvent.accept(event);
+                }
+            }
+        });
+    }
+
+    ScrollPane getNode() {
+        return scrollPane;
+    }
+
+    /**
+     * Show the weeks of month, with the events of the shown days by date
+     */
+    void showMonth(LocalDate month, NavigableMap<LocalDate, List<Event>> eventsByDate, Locale locale) {
+        this.monthMode = true;
+        this.locale = locale;
+        this.month = month;
+        this.firstShown = month.withDayOfMonth(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        for (int i = 0; i < eventsPerCell.size(); i++) {
+            eventsPerCell.set(i, eventsByDate.getOrDefault(firstShown.plusDays(i), List.of()));
+        }
+        blocks = List.of();
+        scrollPane.setFitToHeight(true);
+        pane.requestLayout();
+        draw();
+    }
+
+    /**
+     * Show columnCount days starting at firstDay, with the event blocks laid out for those days
+     */
+    void showTimeline(LocalDate firstDay, int columnCount, List<TimelineLayout.Block> blocks, Locale locale) {
+        this.monthMode = false;
+        this.locale = locale;
+        this.firstDay = firstDay;
+        this.columnCount = columnCount;
+        this.blocks = blocks;
+        Collections.fill(eventsPerCell, List.of());
+        scrollPane.setFitToHeight(false);
+        pane.requestLayout();
+        draw();
+    }
+
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+            return;
+        }
+        if (monthMode) {
+            if (month != null) {
+                drawMonth(gc);
+            }
+        } else if (firstDay != null) {
+            drawTimeline(gc);
+        }
+    }
+
+    private void drawMonth(GraphicsContext gc) {
+        double cellWidth = canvas.getWidth() / 7;
+        double cellHeight = (canvas.getHeight() - HEADER_HEIGHT) / WEEKS;
+        LocalDate lastShown = month.with(TemporalAdjusters.lastDayOfMonth()).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setFont(SMALL_FONT);
+        gc.setFill(TEXT_COLOR);
+        for (int i = 0; i < 7; i++) {
+            gc.fillText(DayOfWeek.of(i + 1).getDisplayName(TextStyle.SHORT, locale), (i + 0.5) * cellWidth, HEADER_HEIGHT / 2);
+        }
+
+        int chipsPerCell = Math.max(0, (int) ((cellHeight - DAY_NUMBER_HEIGHT - PADDING) / (CHIP_HEIGHT + CHIP_GAP)));
+        gc.setLineWidth(1);
+        for (int i = 0; i < eventsPerCell.size(); i++) {
+            LocalDate date = firstShown.plusDays(i);
+            drawnChips[i] = 0;
+            if (date.isAfter(lastShown)) {
+                // Rows after the last week of the month stay empty, as in the node-based grid
+                continue;
+            }
+            double x = (i % 7) * cellWidth;
+            double y = HEADER_HEIGHT + (double) (i / 7) * cellHeight;
+            // Right and bottom borders only, like the day-cell rule
+            gc.setStroke(GRID_COLOR);
+            gc.strokeLine(x + cellWidth - 0.5, y, x + cellWidth - 0.5, y + cellHeight);
+            gc.strokeLine(x, y + cellHeight - 0.5, x + cellWidth, y + cellHeight - 0.5);
+
+            gc.setTextAlign(TextAlignment.RIGHT);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.setFont(SMALL_FONT);
+            gc.setFill(date.getMonth().equals(month.getMonth()) ? TEXT_COLOR : ADJACENT_MONTH_COLOR);
+            gc.fillText(String.valueOf(date.getDayOfMonth()), x + cellWidth - PADDING - 2, y + DAY_NUMBER_HEIGHT / 2 + PADDING);
+
+            List<Event> events = eventsPerCell.get(i);
+            // When the events do not fit, the last line counts the ones left out instead
+            int chips = events.size() <= chipsPerCell ? events.size() : Math.max(0, chipsPerCell - 1);
+            double chipY = y + PADDING + DAY_NUMBER_HEIGHT;
+            for (int c = 0; c < chips; c++) {
+                Event event = events.get(c);
+                drawChip(gc, event, event.getDateTime().toLocalTime() + " " + event.getTitle(),
+                        x + PADDING, chipY + c * (CHIP_HEIGHT + CHIP_GAP), cellWidth - 2 * PADDING - 1, CHIP_HEIGHT);
+            }
+            drawnChips[i] = chips;
+            if (chips < events.size() && chipsPerCell > 0) {
+                gc.setTextAlign(TextAlignment.LEFT);
+                gc.setTextBaseline(VPos.CENTER);
+                gc.setFont(SMALL_FONT);
+                gc.setFill(TEXT_COLOR);
+                gc.fillText("+" + (events.size() - chips), x + PADDING + 2, chipY + chips * (CHIP_HEIGHT + CHIP_GAP) + CHIP_HEIGHT / 2);
+            }
+        }
+    }
+
+    private void drawTimeline(GraphicsContext gc) {
+        double dayWidth = (canvas.getWidth() - TIME_COLUMN_WIDTH) / columnCount;
+
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setFont(HEADER_FONT);
+        gc.setFill(TEXT_COLOR);
+        for (int i = 0; i < columnCount; i++) {
+            LocalDate date = firstDay.plusDays(i);
+            gc.fillText(date.getDayOfWeek().getDisplayName(TextStyle.SHORT, locale) + " " + date.getDayOfMonth(),
+                    TIME_COLUMN_WIDTH + (i + 0.5) * dayWidth, HEADER_HEIGHT / 2);
+        }
+
+        gc.setStroke(GRID_COLOR);
+        gc.setLineWidth(1);
+        gc.setFont(SMALL_FONT);
+        gc.setTextBaseline(VPos.TOP);
+        for (int hour = 0; hour < 24; hour++) {
+            double y = HEADER_HEIGHT + hour * HOUR_HEIGHT;
+            gc.fillText(hour + ":00", TIME_COLUMN_WIDTH / 2, y);
+            gc.strokeLine(TIME_COLUMN_WIDTH, y + HOUR_HEIGHT - 0.5, canvas.getWidth(), y + HOUR_HEIGHT - 0.5);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            double x = TIME_COLUMN_WIDTH + (i + 1) * dayWidth - 0.5;
+            gc.strokeLine(x, HEADER_HEIGHT, x, HEADER_HEIGHT + 24 * HOUR_HEIGHT);
+        }
+
+        for (TimelineLayout.Block block : blocks) {
+            double laneWidth = dayWidth / block.laneCount();
+            drawChip(gc, block.event(), block.event().getTitle(),
+                    TIME_COLUMN_WIDTH + block.day() * dayWidth + block.lane() * laneWidth + 2,
+                    HEADER_HEIGHT + block.startMinute() * HOUR_HEIGHT / 60 + 2,
+                    laneWidth - 4, Math.max(block.duration() * HOUR_HEIGHT / 60 - 4, CHIP_HEIGHT));
+        }
+    }
+
+    /**
+     * One event chip, drawn like the event-chip rule: category background, black border and white text
+     * cut off at the chip's edge
+     */
+    private static void drawChip(GraphicsContext gc, Event event, String text, double x, double y, double width, double height) {
+        if (width <= 0) {
+            return;
+        }
+        Category category = event.getCategory();
+        gc.setFill(category != null ? CATEGORY_COLORS[category.ordinal()] : NO_CATEGORY_COLOR);
+        gc.fillRoundRect(x, y, width, height, 8, 8);
+        gc.setStroke(Color.BLACK);
+        gc.strokeRoundRect(x + 0.5, y + 0.5, width - 1, height - 1, 8, 8);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(x + PADDING, y, width - 2 * PADDING, height);
+        gc.clip();
+        gc.setFill(Color.WHITE);
+        gc.setFont(CHIP_FONT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.fillText(text, x + PADDING + 1, y + PADDING);
+        gc.restore();
+    }
+
+    /**
+     * The event whose chip was drawn at x, y in the month view: the cell and the chip row follow from the
+     * fixed grid, so no shapes need to be searched
+     */
+    private Event monthEventAt(double x, double y) {
+        double cellWidth = canvas.getWidth() / 7;
+        double cellHeight = (canvas.getHeight() - HEADER_HEIGHT) / WEEKS;
+        if (y < HEADER_HEIGHT || cellWidth <= 0 || cellHeight <= 0) {
+            return null;
+        }
+        int column = Math.min(6, (int) (x / cellWidth));
+        int row = (int) ((y - HEADER_HEIGHT) / cellHeight);
+        if (row >= WEEKS) {
+            return null;
+        }
+        int cell = row * 7 + column;
+        double offset = y - HEADER_HEIGHT - row * cellHeight - PADDING - DAY_NUMBER_HEIGHT;
+        if (offset < 0 || offset % (CHIP_HEIGHT + CHIP_GAP) > CHIP_HEIGHT) {
+            return null;
+        }
+        int chip = (int) (offset / (CHIP_HEIGHT + CHIP_GAP));
+        return chip < drawnChips[cell] ? eventsPerCell.get(cell).get(chip) : null;
+    }
+
+    /**
+     * The event of the topmost block drawn at x, y in the week or day view
+     */
+    private Event blockEventAt(double x, double y) {
+        double dayWidth = (canvas.getWidth() - TIME_COLUMN_WIDTH) / columnCount;
+        if (x < TIME_COLUMN_WIDTH || y < HEADER_HEIGHT) {
+            return null;
+        }
+        int day = (int) ((x - TIME_COLUMN_WIDTH) / dayWidth);
+        double minute = (y - HEADER_HEIGHT) * 60 / HOUR_HEIGHT;
+        // Later blocks are drawn on top, so they are hit first
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            TimelineLayout.Block block = blocks.get(i);
+            if (block.day() != day) {
+                continue;
+            }
+            double laneWidth = dayWidth / block.laneCount();
+            double left = TIME_COLUMN_WIDTH + day * dayWidth + block.lane() * laneWidth;
+            double height = Math.max(block.duration(), CHIP_HEIGHT * 60 / HOUR_HEIGHT);
+            if (x >= left && x < left + laneWidth && minute >= block.startMinute() && minute < block.startMinute() + height) {
+                return block.event();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the canvas the size of the pane and redraws it when that size changes. In the week and day views
+     * the pane is as tall as the whole day, inside the scroll pane.
+     */
+    private class CanvasPane extends Pane {
+
+        @Override
+        protected double computeMinWidth(double height) {
+            return monthMode ? 7 * MIN_DAY_WIDTH : TIME_COLUMN_WIDTH + columnCount * MIN_DAY_WIDTH;
+        }
+
+        @Override
+        protected double computePrefWidth(double height) {
+            return computeMinWidth(height);
+        }
+
+        @Override
+        protected double computeMinHeight(double width) {
+            return monthMode ? HEADER_HEIGHT + WEEKS * (DAY_NUMBER_HEIGHT + CHIP_HEIGHT + 2 * PADDING) : computePrefHeight(width);
+        }
+
+        @Override
+        protected double computePrefHeight(double width) {
+            return monthMode ? computeMinHeight(width) : HEADER_HEIGHT + 24 * HOUR_HEIGHT;
+        }
+
+        @Override
+        protected void layoutChildren() {
+            if (canvas.getWidth() != getWidth() || canvas.getHeight() != getHeight()) {
+                canvas.setWidth(getWidth());
+                canvas.setHeight(getHeight());
+                draw();
+            }
+        }
+    }
+}
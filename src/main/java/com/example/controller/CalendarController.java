@@ -1,18 +1,19 @@
 package com.example.controller;
 
+import com.example.index.DayCounts;
+import com.example.index.EventIndex;
+import com.example.layout.TimelineLayout;
 import com.example.model.CalendarView;
 import com.example.model.Event;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXMLLoader;
-import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
@@ -20,10 +21,17 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.time.*;
 import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 
 public class CalendarController {
 
+    /**
+     * System property choosing how the calendar views are drawn: "canvas" draws each view onto one canvas,
+     * for calendars with many events; by default every event is a node.
+     */
+    private static final String RENDERER_PROPERTY = "noteplanner.calendar.renderer";
+
     private ComboBox<String> viewSelector;
     private BorderPane calendarView;
     private Label dateInfoLabel;
@@ -33,6 +41,27 @@ public class CalendarController {
     private LocalDate currentDate;
     private ResourceBundle resources;
     private ObservableList<Event> events;
+    private EventIndex eventIndex = new EventIndex();
+    private DayCounts dayCounts = new DayCounts();
+    private final ListChangeListener<Event> eventIndexUpdater = change -> {
+        while (change.next()) {
+            if (!change.wasPermutated()) {
+                for (Event removed : change.getRemoved()) {
+                    eventIndex.remove(removed);
+                    dayCounts.remove(removed);
+                }
+                eventIndex.addAll(change.getAddedSubList());
+                dayCounts.addAll(change.getAddedSubList());
+            }
+        }
+        invalidatePrefetched();
+    };
+    private CalendarPrefetcher prefetcher;
+    private MonthGrid monthGrid;
+    private TimelineView timelineView;
+    private CalendarCanvas calendarCanvas;
+    private YearHeatmap yearHeatmap;
+    private final boolean canvasRendering = "canvas".equalsIgnoreCase(System.getProperty(RENDERER_PROPERTY));
     private CalendarView lastActiveView = CalendarView.MONTH;
     private MainController mainController;
 
@@ -60,6 +89,7 @@ public class CalendarController {
         initializeButtons();
 
         this.viewSelector.setItems(FXCollections.observableArrayList(
+                resources.getString(CalendarView.YEAR.getResourceKey()),
                 resources.getString(CalendarView.MONTH.getResourceKey()),
                 resources.getString(CalendarView.WEEK.getResourceKey()),
                 resources.getString(CalendarView.DAY.getResourceKey())
@@ -113,7 +143,9 @@ public class CalendarController {
      * Update the date information label based on the current date
      */
     public void updateDateInfoLabel(ResourceBundle resources) {
-        if (currentDate != null) {
+        if (currentDate != null && lastActiveView == CalendarView.YEAR) {
+            dateInfoLabel.setText(String.valueOf(currentDate.getYear()));
+        } else if (currentDate != null) {
             dateInfoLabel.setText(currentDate.getMonth().getDisplayName(TextStyle.FULL, resources.getLocale()) + " " + currentDate.getYear());
         }
     }
@@ -133,10 +165,33 @@ public class CalendarController {
     }
 
     /**
-     * Set the list of events to be displayed in the calendar
+     * Set the list of events to be displayed in the calendar, index them by date and count them per day. The
+     * index and the counts follow additions and removals from then on
      */
     public void setEvents(ObservableList<Event> events) {
+        if (this.events != null) {
+            this.events.removeListener(eventIndexUpdater);
+        }
         this.events = events;
+        eventIndex = new EventIndex(events);
+        dayCounts = new DayCounts(events);
+        events.addListener(eventIndexUpdater);
+        invalidatePrefetched();
+    }
+
+    /**
+     * Re-file and re-count an event whose date, time or category was edited
+     */
+    public void eventUpdated(Event event) {
+        eventIndex.update(event);
+        dayCounts.update(event);
+        invalidatePrefetched();
+    }
+
+    private void invalidatePrefetched() {
+        if (prefetcher != null) {
+            prefetcher.invalidate();
+        }
     }
 
     /**
@@ -144,6 +199,7 @@ public class CalendarController {
      */
     public void setMainController(MainController mainController) {
         this.mainController = mainController;
+        this.prefetcher = new CalendarPrefetcher(() -> eventIndex, mainController::ensureEventsLoaded);
     }
 
     /**
@@ -154,29 +210,33 @@ public class CalendarController {
     }
 
     /**
-     * Handle switching to the previous month/week/day based on the active view
+     * Handle switching to the previous year/month/week/day based on the active view
      */
     public void handlePrevious() {
-        switch (lastActiveView) {
-            case MONTH -> currentDate = currentDate.minusMonths(1);
-            case WEEK -> currentDate = currentDate.minusWeeks(1);
-            case DAY -> currentDate = currentDate.minusDays(1);
-        }
+        currentDate = shift(lastActiveView, currentDate, -1);
         updateCalendarView(lastActiveView);
     }
 
     /**
-     * Handle switching to the next month/week/day based on the active view
+     * Handle switching to the next year/month/week/day based on the active view
      */
     public void handleNext() {
-        switch (lastActiveView) {
-            case MONTH -> currentDate = currentDate.plusMonths(1);
-            case WEEK -> currentDate = currentDate.plusWeeks(1);
-            case DAY -> currentDate = currentDate.plusDays(1);
-        }
+        currentDate = shift(lastActiveView, currentDate, 1);
         updateCalendarView(lastActiveView);
     }
 
+    /**
+     * The date amount years/months/weeks/days after date, by the given view
+     */
+    private static LocalDate shift(CalendarView view, LocalDate date, int amount) {
+        return switch (view) {
+            case YEAR -> date.plusYears(amount);
+            case MONTH -> date.plusMonths(amount);
+            case WEEK -> date.plusWeeks(amount);
+            case DAY -> date.plusDays(amount);
+        };
+    }
+
     /**
      * Handle adding a new event by opening the event creation window
      */
@@ -207,171 +267,130 @@ public class CalendarController {
             throw new IllegalArgumentException("Selected view cannot be null");
         }
         this.lastActiveView = selectedView;
+        if (mainController != null && currentDate != null) {
+            mainController.ensureEventsLoaded(getVisibleRangeStart(selectedView), getVisibleRangeEnd(selectedView));
+        }
         switch (selectedView) {
+            case YEAR -> displayYearView();
             case MONTH -> displayMonthView();
             case WEEK -> displayWeekView();
             case DAY -> displayDayView();
         }
+
+        // Prepare the previous and next month/week/day, so navigating there only binds the prepared data. The
+        // year view reads the day counts, which need no preparation
+        if (prefetcher != null && currentDate != null && selectedView != CalendarView.YEAR) {
+            prefetcher.prefetch(List.of(getVisibleRange(selectedView, shift(selectedView, currentDate, 1)),
+                    getVisibleRange(selectedView, shift(selectedView, currentDate, -1))));
+        }
     }
 
     /**
-     * Set the resource bundle for localization
+     * Dates shown by the given view around date, including the adjacent-month days of the month view
      */
-    public void setResources(ResourceBundle resources) {
-        this.resources = resources;
+    private CalendarPrefetcher.Range getVisibleRange(CalendarView view, LocalDate date) {
+        return new CalendarPrefetcher.Range(view, getVisibleRangeStart(view, date), getVisibleRangeEnd(view, date));
     }
 
     /**
-     * Display the month view with days and events
+     * First date shown by the given view, including the adjacent-month days of the month view
      */
-    private void displayMonthView() {
-        if (currentDate != null) {
-            GridPane gridPane = new GridPane();
-            ScrollPane scrollPane = new ScrollPane(gridPane);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setFitToHeight(true);
-            scrollPane.setPadding(new Insets(5, 5, 5, 5));
-
-            // Set day of the week headers (starting with Monday)
-            for (int i = 0; i < 7; i++) {
-                DayOfWeek dayOfWeek = DayOfWeek.of((i) % 7 + 1); // Start with Monday
-                Label dayOfWeekLabel = new Label(dayOfWeek.getDisplayName(TextStyle.SHORT, resources.getLocale()));
-                dayOfWeekLabel.setStyle("-fx-font-size: 12px; -fx-fill: #333333;");
-                dayOfWeekLabel.setMaxWidth(Double.MAX_VALUE);
-                dayOfWeekLabel.setAlignment(Pos.CENTER);
-                GridPane.setHalignment(dayOfWeekLabel, HPos.CENTER);
-                dayOfWeekLabel.setPrefHeight(30);
-                gridPane.add(dayOfWeekLabel, i, 0);
-            }
-
-            // Set minimum column widths for the days
-            double minCellWidth = 100;
-
-            for (int i = 0; i < 7; i++) {
-                ColumnConstraints dayColumnConstraints = new ColumnConstraints();
-                dayColumnConstraints.setMinWidth(minCellWidth);
-                dayColumnConstraints.setHgrow(Priority.ALWAYS);
-                gridPane.getColumnConstraints().add(dayColumnConstraints);
-            }
-
-            // Set the row height for the day of the week headers
-            RowConstraints headerRowConstraints = new RowConstraints();
-            headerRowConstraints.setPrefHeight(30);
-            headerRowConstraints.setMinHeight(30);
-            gridPane.getRowConstraints().add(headerRowConstraints);
-
-            // Reserve space for up to 6 rows of days in the month
-            for (int i = 0; i < 6; i++) {
-                RowConstraints rowConstraints = new RowConstraints();
-                rowConstraints.setVgrow(Priority.ALWAYS); // Allow vertical growth
-                gridPane.getRowConstraints().add(rowConstraints);
-            }
-
-            // Calculate the starting point and total days in the current month
-            LocalDate firstDayOfMonth = currentDate.withDayOfMonth(1);
-            int startDayIndex = (firstDayOfMonth.getDayOfWeek().getValue() % 7) - 1; // Adjust index for Monday start
-            if (startDayIndex < 0) startDayIndex = 6; // Adjust for Sunday
-            int daysInMonth = currentDate.lengthOfMonth();
-
-            int rowIndex = 1;
-            int colIndex = startDayIndex;
-
-            // Handle previous month days to fill in the first week
-            LocalDate previousMonth = firstDayOfMonth.minusMonths(1);
-            int daysInPreviousMonth = previousMonth.lengthOfMonth();
+    private LocalDate getVisibleRangeStart(CalendarView view) {
+        return getVisibleRangeStart(view, currentDate);
+    }
 
-            // Handle next month days to fill in the last week
-            LocalDate nextMonth = firstDayOfMonth.plusMonths(1);
+    private static LocalDate getVisibleRangeStart(CalendarView view, LocalDate date) {
+        return switch (view) {
+            case YEAR -> date.with(TemporalAdjusters.firstDayOfYear());
+            case MONTH -> date.withDayOfMonth(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case DAY -> date;
+        };
+    }
 
-            // Fill in the previous month's days
-            for (int i = startDayIndex - 1; i >= 0; i--) {
-                VBox dayBox = createDayBox(previousMonth.withDayOfMonth(daysInPreviousMonth - (startDayIndex - 1 - i)), true);
-                gridPane.add(dayBox, i, rowIndex);
-            }
+    /**
+     * Last date shown by the given view, including the adjacent-month days of the month view
+     */
+    private LocalDate getVisibleRangeEnd(CalendarView view) {
+        return getVisibleRangeEnd(view, currentDate);
+    }
 
-            // Fill in the current month's days
-            for (int day = 1; day <= daysInMonth; day++) {
-                VBox dayBox = createDayBox(firstDayOfMonth.withDayOfMonth(day), false);
-                gridPane.add(dayBox, colIndex, rowIndex);
+    private static LocalDate getVisibleRangeEnd(CalendarView view, LocalDate date) {
+        return switch (view) {
+            case YEAR -> date.with(TemporalAdjusters.lastDayOfYear());
+            case MONTH -> date.with(TemporalAdjusters.lastDayOfMonth()).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case WEEK -> date.with(DayOfWeek.SUNDAY);
+            case DAY -> date;
+        };
+    }
 
-                colIndex++;
-                if (colIndex > 6) { // Move to the next row after filling a week
-                    colIndex = 0;
-                    rowIndex++;
-                }
-            }
+    /**
+     * Events of the given range by date, prepared in the background if available
+     */
+    private NavigableMap<LocalDate, List<Event>> eventsByDate(CalendarPrefetcher.Range range) {
+        CalendarPrefetcher.Prepared prepared = prefetcher == null ? null : prefetcher.take(range);
+        return prepared != null ? prepared.eventsByDate() : eventIndex.eventsBetween(range.first(), range.last());
+    }
 
-            // Fill in the next month's days
-            int dayOfNextMonth = 1;
-            while (colIndex <= 6) {
-                VBox dayBox = createDayBox(nextMonth.withDayOfMonth(dayOfNextMonth), true);
-                gridPane.add(dayBox, colIndex, rowIndex);
-                colIndex++;
-                dayOfNextMonth++;
-            }
+    /**
+     * Set the resource bundle for localization
+     */
+    public void setResources(ResourceBundle resources) {
+        this.resources = resources;
+    }
 
-            // Ensure all rows fill the vertical space
-            for (int i = gridPane.getRowConstraints().size(); i < 7; i++) {
-                RowConstraints rowConstraints = new RowConstraints();
-                rowConstraints.setVgrow(Priority.ALWAYS);
-                gridPane.getRowConstraints().add(rowConstraints);
+    /**
+     * Display the year view, shading each day by its number of events
+     */
+    private void displayYearView() {
+        if (currentDate != null) {
+            if (yearHeatmap == null) {
+                yearHeatmap = new YearHeatmap(this::openDay);
             }
+            yearHeatmap.show(dayCounts.year(currentDate.getYear()), resources);
+            calendarView.setCenter(yearHeatmap.getNode());
+            dateInfoLabel.setText(String.valueOf(currentDate.getYear()));
+        }
+    }
 
-            calendarView.setCenter(scrollPane);
+    /**
+     * Switch to the day view of date; selecting the view fires the selector's action, which shows it
+     */
+    private void openDay(LocalDate date) {
+        currentDate = date;
+        viewSelector.setValue(resources.getString(CalendarView.DAY.getResourceKey()));
+    }
 
-            // Update the date info label
-            dateInfoLabel.setText(currentDate.getMonth().getDisplayName(TextStyle.FULL, resources.getLocale()) + " " + currentDate.getYear());
+    /**
+     * The canvas used by all views when canvas rendering is selected, created by the first call
+     */
+    private CalendarCanvas getCalendarCanvas() {
+        if (calendarCanvas == null) {
+            calendarCanvas = new CalendarCanvas(this::openEventWindow);
         }
+        return calendarCanvas;
     }
 
     /**
-     * Create a VBox for a day, including events
+     * Display the month view with days and events, reusing the grid built by the first call
      */
-    private VBox createDayBox(LocalDate date, boolean isAdjacentMonth) {
-        VBox dayBox = new VBox();
-        dayBox.setStyle("-fx-border-color: #cccccc; -fx-border-width: 0 1 1 0;");
-        dayBox.setPadding(new Insets(2));
-        dayBox.setFillWidth(true);
-
-        Label dayLabel = new Label(String.valueOf(date.getDayOfMonth()));
-        dayLabel.setStyle(isAdjacentMonth ? "-fx-font-size: 12px; -fx-text-fill: #aaaaaa;" : "-fx-font-size: 12px; -fx-text-fill: #333333;");
-        dayLabel.setMaxWidth(Double.MAX_VALUE);
-        dayLabel.setAlignment(Pos.TOP_RIGHT);
-
-        dayBox.getChildren().add(dayLabel);
-
-        // Add events to the corresponding days
-        List<Event> eventsForDay = events.stream()
-                .filter(event -> event.getDateTime().toLocalDate().equals(date))
-                .sorted(Comparator.comparing(Event::getDateTime))
-                .toList();
-
-        for (Event event : eventsForDay) {
-            Label eventLabel = new Label(formatEventLabel(event));
-            eventLabel.setStyle(
-                    "-fx-background-color: " + event.getCategory().getColor() + "; " +
-                            "-fx-text-fill: white; " +
-                            "-fx-padding: 2px; " +
-                            "-fx-border-radius: 4px; " +
-                            "-fx-background-radius: 4px; " +
-                            "-fx-border-color: #000000; " +
-                            "-fx-border-width: 1px;"
-            );
-            eventLabel.setMaxWidth(Double.MAX_VALUE);
-            eventLabel.setWrapText(false);
-            eventLabel.setEllipsisString("...");
-
-            // Add double-click event listener to open the event for editing
-            eventLabel.setOnMouseClicked(e -> {
-                if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
-                    openEventWindow(event);
+    private void displayMonthView() {
+        if (currentDate != null) {
+            NavigableMap<LocalDate, List<Event>> eventsByDate = eventsByDate(getVisibleRange(CalendarView.MONTH, currentDate));
+            if (canvasRendering) {
+                getCalendarCanvas().showMonth(currentDate, eventsByDate, resources.getLocale());
+                calendarView.setCenter(calendarCanvas.getNode());
+            } else {
+                if (monthGrid == null) {
+                    monthGrid = new MonthGrid(this::openEventWindow);
                 }
-            });
+                monthGrid.show(currentDate, eventsByDate, resources.getLocale());
+                calendarView.setCenter(monthGrid.getNode());
+            }
 
-            dayBox.getChildren().add(eventLabel);
+            // Update the date info label
+            dateInfoLabel.setText(currentDate.getMonth().getDisplayName(TextStyle.FULL, resources.getLocale()) + " " + currentDate.getYear());
         }
-
-        return dayBox;
     }
 
     /**
@@ -399,178 +418,32 @@ public class CalendarController {
     }
 
     /**
-     * Format event labels with start time and title
-     */
-    private String formatEventLabel(Event event) {
-        LocalTime startTime = event.getDateTime().toLocalTime();
-        String title = event.getTitle();
-        return startTime + " " + title;
-    }
-
-    /**
-     * Display the week or day view
+     * Display the week or day view, reusing the timeline built by the first call
      */
     private void displayView(boolean isDayView) {
         if (currentDate != null) {
-            GridPane gridPane = new GridPane();
-            ScrollPane scrollPane = new ScrollPane(gridPane);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setPadding(new Insets(5, 5, 5, 5));
-
             int columnCount = isDayView ? 1 : 7;
-
-            // Add time column with fixed width
-            ColumnConstraints timeColumnConstraints = new ColumnConstraints();
-            timeColumnConstraints.setPrefWidth(50);
-            timeColumnConstraints.setMinWidth(50);
-            gridPane.getColumnConstraints().add(timeColumnConstraints);
-
-            // Add day columns with evenly distributed width
-            for (int i = 0; i < columnCount; i++) {
-                ColumnConstraints dayColumnConstraints = new ColumnConstraints();
-                dayColumnConstraints.setHgrow(Priority.ALWAYS);
-                dayColumnConstraints.setFillWidth(true);
-                dayColumnConstraints.setMinWidth(100);
-                gridPane.getColumnConstraints().add(dayColumnConstraints);
-            }
-
-            // Create header with day names or just the day (for day view)
-            for (int i = 0; i < columnCount; i++) {
-                LocalDate dayDate = isDayView ? currentDate : currentDate.with(DayOfWeek.MONDAY).plusDays(i);
-                Label dayLabel = new Label(dayDate.getDayOfWeek().getDisplayName(TextStyle.SHORT, resources.getLocale()) + " " + dayDate.getDayOfMonth());
-                dayLabel.setStyle("-fx-font-size: 14px; -fx-fill: #333333;");
-                dayLabel.setMaxWidth(Double.MAX_VALUE);
-                dayLabel.setAlignment(Pos.CENTER);
-                GridPane.setHalignment(dayLabel, HPos.CENTER);
-                gridPane.add(dayLabel, i + 1, 0); // +1 because column 0 is the time column
-            }
-
-            // Create the time column and the grid for the week or day
-            for (int hour = 0; hour < 24; hour++) {
-                Label hourLabel = new Label(hour + ":00");
-                hourLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #333333;");
-                hourLabel.setPrefHeight(60);  // Each hour equals 60 minutes
-                hourLabel.setMinHeight(60);
-                hourLabel.setMaxWidth(Double.MAX_VALUE);
-                hourLabel.setAlignment(Pos.TOP_CENTER);
-                GridPane.setHalignment(hourLabel, HPos.CENTER);
-                gridPane.add(hourLabel, 0, hour + 1); // Column 0, rows 1-24
-
-                // Create day cells for the grid
-                for (int i = 0; i < columnCount; i++) {
-                    Pane dayPane = new Pane(); // Pane for manually positioning events
-                    dayPane.setPrefHeight(60); // Each cell is 60 minutes
-                    dayPane.setStyle("-fx-border-color: #cccccc; -fx-border-width: 0 1 1 0;");
-                    gridPane.add(dayPane, i + 1, hour + 1); // Columns 1-7 (or 1 for day view), rows 1-24
+            CalendarPrefetcher.Range range = getVisibleRange(isDayView ? CalendarView.DAY : CalendarView.WEEK, currentDate);
+            CalendarPrefetcher.Prepared prepared = prefetcher == null ? null : prefetcher.take(range);
+            List<TimelineLayout.Block> blocks = prepared != null
+                    ? prepared.blocks()
+                    : TimelineLayout.layoutDays(range.first(), eventIndex.eventsBetween(range.first(), range.last()));
+            if (canvasRendering) {
+                getCalendarCanvas().showTimeline(range.first(), columnCount, blocks, resources.getLocale());
+                calendarView.setCenter(calendarCanvas.getNode());
+            } else {
+                if (timelineView == null) {
+                    timelineView = new TimelineView(this::openEventWindow);
                 }
-            }
-
-            Map<String, List<Label>> eventMap = new HashMap<>();
-
-            // Add events to the grid
-            for (Event event : events) {
-                LocalDateTime eventStartDateTime = event.getDateTime();
-                LocalDateTime eventEndDateTime = event.getEndDateTime();
-                LocalDate eventDate = eventStartDateTime.toLocalDate();
+                timelineView.show(range.first(), columnCount, blocks, resources.getLocale());
 
-                // Filter out events not within the current week or day
-                if (!isDayView && (eventDate.isBefore(currentDate.with(DayOfWeek.MONDAY)) || eventDate.isAfter(currentDate.with(DayOfWeek.SUNDAY)))) {
-                    continue; // Skip events outside the current week
-                } else if (isDayView && !eventDate.equals(currentDate)) {
-                    continue; // Skip events outside the current day
-                }
-
-                int dayOfWeekIndex = isDayView ? 0 : eventDate.getDayOfWeek().getValue() - 1;
-                int startHour = eventStartDateTime.getHour();
-                int startMinutes = eventStartDateTime.getMinute();
-
-                int endHour = eventEndDateTime.getHour();
-                int endMinutes = eventEndDateTime.getMinute();
-                int eventDuration = (endHour * 60 + endMinutes) - (startHour * 60 + startMinutes);
-
-                String key = dayOfWeekIndex + "_" + startHour;
-
-                // Create a label for the event and style it
-                Label eventLabel = new Label(event.getTitle());
-                eventLabel.setStyle(
-                        "-fx-background-color: " + event.getCategory().getColor() + "; " +
-                                "-fx-text-fill: white; " +
-                                "-fx-padding: 2px; " +
-                                "-fx-border-radius: 4px; " +
-                                "-fx-background-radius: 4px; " +
-                                "-fx-border-color: #000000; " +
-                                "-fx-border-width: 1px;"
-                );
-                eventLabel.setPrefHeight(eventDuration - 4);
-                eventLabel.setAlignment(Pos.TOP_LEFT);
-                eventLabel.setPadding(new Insets(2));
-                eventLabel.setLayoutY(startMinutes + 2);
-
-                // Add event editing functionality on double-click
-                eventLabel.setOnMouseClicked(eventMouseEvent -> {
-                    if (eventMouseEvent.getClickCount() == 2 && eventMouseEvent.getButton() == MouseButton.PRIMARY) {
-                        openEventWindow(event);
-                    }
-                });
-
-                // Add event label to the map for this time slot
-                List<Label> eventList = eventMap.getOrDefault(key, new ArrayList<>());
-                eventList.add(eventLabel);
-                eventMap.put(key, eventList);
-            }
-
-            // Add events to the grid and dynamically adjust their width
-            for (Map.Entry<String, List<Label>> entry : eventMap.entrySet()) {
-                String[] parts = entry.getKey().split("_");
-                int dayOfWeekIndex = Integer.parseInt(parts[0]);
-                int hour = Integer.parseInt(parts[1]);
-                List<Label> eventList = entry.getValue();
-
-                Pane dayPane = (Pane) getNodeFromGridPane(gridPane, dayOfWeekIndex + 1, hour + 1);
-                if (dayPane != null) {
-                    dayPane.widthProperty().addListener((obs, oldWidth, newWidth) -> {
-                        double totalWidth = newWidth.doubleValue();
-
-                        if (totalWidth <= 0) {
-                            totalWidth = 100; // Set default width if necessary
-                        }
-
-                        double eventWidth = totalWidth / eventList.size() - 4; // Subtract 4px for padding
-
-                        for (int i = 0; i < eventList.size(); i++) {
-                            Label eventLabel = eventList.get(i);
-                            eventLabel.setPrefWidth(eventWidth);
-                            eventLabel.setMaxWidth(eventWidth);
-                            eventLabel.setMinWidth(eventWidth);
-                            eventLabel.setLayoutX(i * (eventWidth + 4) + 2); // Offset event by 2px
-                        }
-                    });
-
-                    // Add event labels to the day pane
-                    for (Label eventLabel : eventList) {
-                        dayPane.getChildren().add(eventLabel);
-                    }
-                }
+                // Set the timeline inside the calendar view
+                calendarView.setCenter(timelineView.getNode());
             }
-
-            // Set the grid inside the calendar view
-            calendarView.setCenter(scrollPane);
             dateInfoLabel.setText(currentDate.getMonth().getDisplayName(TextStyle.FULL, resources.getLocale()) + " " + currentDate.getYear());
         }
     }
 
-    /**
-     * Helper method to get a specific node from the GridPane
-     */
-    private Node getNodeFromGridPane(GridPane gridPane, int col, int row) {
-        for (Node node : gridPane.getChildren()) {
-            if (GridPane.getColumnIndex(node) == col && GridPane.getRowIndex(node) == row) {
-                return node;
-            }
-        }
-        return null;
-    }
-
     /**
      * Display the week view
      */
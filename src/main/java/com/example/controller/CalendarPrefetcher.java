@@ -0,0 +1,179 @@
+package com.example.controller;
+
+import com.example.index.EventIndex;
+import com.example.layout.TimelineLayout;
+import com.example.model.CalendarView;
+import com.example.model.Event;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Prepares the ranges next to the shown one in the background, so navigating to them only has to bind the
+ * ready-made data to the view. Once the view has settled, the missing ranges are loaded from storage, their
+ * events are expanded and, for the week and day views, laid out. The results are kept in a small LRU cache
+ * that is cleared whenever the events change; results computed from events that changed meanwhile are dropped.
+ *
+ * <p>Work is split between the FX thread, which owns the event list, the index and the events themselves, and
+ * background threads: storage reads run on the storage writer and layout on a thread of the prefetcher. The
+ * FX thread publishes the loaded events, reads the ranges from the index, expands the recurring events and
+ * copies the events to lay out, so the background never reads anything the FX thread may change.
+ */
+class CalendarPrefetcher {
+
+    private static final int MAX_CACHED_RANGES = 8;
+    private static final Duration SETTLE_DELAY = Duration.millis(200);
+
+    /**
+     * A view showing first to last (inclusive)
+     */
+    record Range(CalendarView view, LocalDate first, LocalDate last) {
+    }
+
+    /**
+     * Events of a range by date and, for the week and day views, their layout
+     */
+    record Prepared(NavigableMap<LocalDate, List<Event>> eventsByDate, List<TimelineLayout.Block> blocks) {
+    }
+
+    private final Map<Range, Prepared> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Range, Prepared> eldest) {
+            return size() > MAX_CACHED_RANGES;
+        }
+    };
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "calendar-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition settle = new PauseTransition(SETTLE_DELAY);
+    private final Supplier<EventIndex> index;
+    private final BiFunction<LocalDate, LocalDate, CompletableFuture<Void>> storageLoader;
+    private long generation;
+
+    /**
+     * @param index         the index the views read from, asked for on every prefetch as it is replaced by filtering
+     * @param storageLoader adds the stored events of a range that are not in memory yet to the event list; called
+     *                      on the FX thread, completes on it once they are added
+     */
+    CalendarPrefetcher(Supplier<EventIndex> index, BiFunction<LocalDate, LocalDate, CompletableFuture<Void>> storageLoader) {
+        this.index = index;
+        this.storageLoader = storageLoader;
+    }
+
+    /**
+     * The prepared data of range, or null if it has not been prepared since the events last changed
+     */
+    Prepared take(Range range) {
+        return cache.get(range);
+    }
+
+    /**
+     * Drops every prepared range, and the results of preparations still running
+     */
+    void invalidate() {
+        generation++;
+        cache.clear();
+    }
+
+    /**
+     * Prepares ranges once no new request has arrived for the settle delay; an earlier request is replaced
+     */
+    void prefetch(List<Range> ranges) {
+        settle.setOnFinished(finished -> start(ranges.stream().filter(range -> !cache.containsKey(range)).toList()));
+        settle.playFromStart();
+    }
+
+    private void start(List<Range> ranges) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        CompletableFuture
+                .allOf(ranges.stream().map(range -> storageLoader.apply(range.first(), range.last())).toArray(CompletableFuture[]::new))
+                .thenApplyAsync(loaded -> {
+                    // Read after the loaded events are published, so the results below include them
+                    EventIndex current = index.get();
+                    List<RangeEvents> read = new ArrayList<>();
+                    for (Range range : ranges) {
+                        read.add(read(range, current));
+                    }
+                    return new Read(generation, read);
+                }, Platform::runLater)
+                .thenApplyAsync(read -> {
+                    Map<Range, Prepared> prepared = new LinkedHashMap<>();
+                    for (RangeEvents events : read.ranges()) {
+                        prepared.put(events.range(), prepare(events));
+                    }
+                    return new Results(read.generation(), prepared);
+                }, executor)
+                .thenAcceptAsync(results -> {
+                    if (results.generation() == generation) {
+                        cache.putAll(results.prepared());
+                    }
+                }, Platform::runLater)
+                .exceptionally(error -> {
+                    error.printStackTrace();
+                    return null;
+                });
+    }
+
+    /**
+     * The events of a range by date, and for the week and day views copies of them to lay out, with the
+     * original of every copy
+     */
+    private record RangeEvents(Range range, NavigableMap<LocalDate, List<Event>> eventsByDate,
+                               NavigableMap<LocalDate, List<Event>> copies, Map<Event, Event> originals) {
+    }
+
+    /**
+     * Reads the events of range on the FX thread, copying the days and expanding the recurring events.
+     */
+    private static RangeEvents read(Range range, EventIndex index) {
+        NavigableMap<LocalDate, List<Event>> eventsByDate = new TreeMap<>();
+        index.eventsBetween(range.first(), range.last()).forEach((date, events) -> eventsByDate.put(date, new ArrayList<>(events)));
+        NavigableMap<LocalDate, List<Event>> copies = new TreeMap<>();
+        Map<Event, Event> originals = new IdentityHashMap<>();
+        if (range.view() != CalendarView.MONTH) {
+            eventsByDate.forEach((date, events) -> {
+                List<Event> day = new ArrayList<>(events.size());
+                for (Event event : events) {
+                    Event copy = event.copy();
+                    originals.put(copy, event);
+                    day.add(copy);
+                }
+                copies.put(date, day);
+            });
+        }
+        return new RangeEvents(range, Collections.unmodifiableNavigableMap(eventsByDate), copies, originals);
+    }
+
+    /**
+     * Lays out the copies of a week or day range in the background, placing the original events.
+     */
+    private static Prepared prepare(RangeEvents events) {
+        if (events.range().view() == CalendarView.MONTH) {
+            return new Prepared(events.eventsByDate(), null);
+        }
+        List<TimelineLayout.Block> blocks = new ArrayList<>();
+        for (TimelineLayout.Block block : TimelineLayout.layoutDays(events.range().first(), events.copies())) {
+            blocks.add(new TimelineLayout.Block(events.originals().get(block.event()), block.day(),
+                    block.startMinute(), block.endMinute(), block.lane(), block.laneCount()));
+        }
+        return new Prepared(events.eventsByDate(), blocks);
+    }
+
+    private record Read(long generation, List<RangeEvents> ranges) {
+    }
+
+    private record Results(long generation, Map<Range, Prepared> prepared) {
+    }
+}
@@ -2,15 +2,19 @@ package com.example.controller;
 
 import com.example.model.Category;
 import com.example.model.Event;
+import com.example.model.Recurrence;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
@@ -34,9 +38,19 @@ public class EventController {
     @FXML
     private ComboBox<Category> categoryComboBox;
     @FXML
+    private Label repeatLabel;
+    @FXML
+    private ComboBox<String> repeatComboBox;
+    @FXML
+    private DatePicker repeatUntilPicker;
+    @FXML
+    private TextField repeatCountField;
+    @FXML
     private Button saveButton;
     @FXML
     private Button deleteButton;
+    @FXML
+    private Button deleteSeriesButton;
 
     @FXML
     private ResourceBundle resources;
@@ -59,11 +73,13 @@ public class EventController {
     private void initialize() {
         setupTimeComboBoxes();
         setupCategoryComboBox();
+        setupRepeatComboBox();
         configureFieldPrompts();
     }
 
     /**
-     * Sets the event content when editing an existing event.
+     * Sets the event content when editing an existing event. For an occurrence of a recurring event the
+     * form shows the occurrence's date with the repeat rule of its series.
      */
     public void setEventContent(Event event) {
         this.event = event;
@@ -74,6 +90,8 @@ public class EventController {
         descriptionArea.setText(event.getDescription());
         tagsField.setText(event.getTagsAsString());
         categoryComboBox.setValue(event.getCategory());
+        Event stored = event.getSeries() != null ? event.getSeries() : event;
+        setRecurrenceContent(stored.getRecurrence());
         isEditMode = true;
         deleteButton.setVisible(true);
     }
@@ -86,6 +104,12 @@ public class EventController {
         if (isEditMode) {
             saveButton.setText(resources.getString("event.saveButton"));
             deleteButton.setText(resources.getString("button.delete"));
+            if (event != null && event.getSeries() != null) {
+                deleteButton.setText(resources.getString("event.deleteOccurrenceButton"));
+                deleteSeriesButton.setText(resources.getString("event.deleteSeriesButton"));
+                deleteSeriesButton.setVisible(true);
+                deleteSeriesButton.setManaged(true);
+            }
         } else {
             saveButton.setText(resources.getString("event.addButton"));
             deleteButton.setVisible(false);
@@ -105,11 +129,23 @@ public class EventController {
     }
 
     /**
-     * Handles deleting the event.
+     * Handles deleting the event, or only the shown occurrence of a recurring event.
      */
     @FXML
     private void handleDelete() {
-        confirmAndDeleteEvent();
+        if (event.getSeries() != null) {
+            confirmAndDelete(resources.getString("event.deleteConfirmationText"), () -> mainController.skipOccurrence(event));
+        } else {
+            confirmAndDelete(resources.getString("event.deleteConfirmationText"), () -> mainController.deleteEvent(event));
+        }
+    }
+
+    /**
+     * Handles deleting every occurrence of a recurring event.
+     */
+    @FXML
+    private void handleDeleteSeries() {
+        confirmAndDelete(resources.getString("event.deleteSeriesConfirmationText"), () -> mainController.deleteEvent(event.getSeries()));
     }
 
     /**
@@ -163,6 +199,67 @@ public class EventController {
         });
     }
 
+    /**
+     * Sets up the repeat options, shown with their translated names.
+     */
+    private void setupRepeatComboBox() {
+        repeatComboBox.setItems(FXCollections.observableArrayList(
+                "repeat.none", "repeat.daily", "repeat.weekly", "repeat.weekdays", "repeat.monthly"));
+        repeatComboBox.setCellFactory(comboBox -> new ListCell<>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : resources.getString(item));
+            }
+        });
+        repeatComboBox.setButtonCell(repeatComboBox.getCellFactory().call(null));
+        repeatComboBox.setValue("repeat.none");
+
+        // The end of the series only applies to repeating events
+        repeatUntilPicker.disableProperty().bind(repeatComboBox.valueProperty().isEqualTo("repeat.none"));
+        repeatCountField.disableProperty().bind(repeatComboBox.valueProperty().isEqualTo("repeat.none"));
+    }
+
+    /**
+     * Shows the repeat rule of an existing event in the repeat fields.
+     */
+    private void setRecurrenceContent(Recurrence recurrence) {
+        if (recurrence == null) {
+            repeatComboBox.setValue("repeat.none");
+            return;
+        }
+        repeatComboBox.setValue(switch (recurrence.getFrequency()) {
+            case DAILY -> "repeat.daily";
+            case WEEKLY -> recurrence.getDaysOfWeek().size() > 1 ? "repeat.weekdays" : "repeat.weekly";
+            case MONTHLY -> "repeat.monthly";
+        });
+        repeatUntilPicker.setValue(recurrence.getUntil());
+        repeatCountField.setText(recurrence.getCount() == null ? "" : String.valueOf(recurrence.getCount()));
+    }
+
+    /**
+     * Builds the repeat rule from the repeat fields, or null for a single event.
+     */
+    private Recurrence buildRecurrence() {
+        Recurrence recurrence = switch (repeatComboBox.getValue()) {
+            case "repeat.daily" -> new Recurrence(Recurrence.Frequency.DAILY);
+            case "repeat.weekly" -> new Recurrence(Recurrence.Frequency.WEEKLY);
+            case "repeat.weekdays" -> {
+                Recurrence weekdays = new Recurrence(Recurrence.Frequency.WEEKLY);
+                weekdays.setDaysOfWeek(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+                yield weekdays;
+            }
+            case "repeat.monthly" -> new Recurrence(Recurrence.Frequency.MONTHLY);
+            default -> null;
+        };
+        if (recurrence != null) {
+            recurrence.setUntil(repeatUntilPicker.getValue());
+            String count = repeatCountField.getText();
+            recurrence.setCount(count == null || count.isBlank() ? null : Integer.valueOf(count.trim()));
+        }
+        return recurrence;
+    }
+
     /**
      * Configures field prompts for user input fields.
      */
@@ -173,6 +270,9 @@ public class EventController {
         startTimeComboBox.setPromptText(resources.getString("event.startTime"));
         endTimeComboBox.setPromptText(resources.getString("event.endTime"));
         categoryLabel.setText(resources.getString("event.categoryLabel"));
+        repeatLabel.setText(resources.getString("event.repeatLabel"));
+        repeatUntilPicker.setPromptText(resources.getString("event.repeatUntil"));
+        repeatCountField.setPromptText(resources.getString("event.repeatCount"));
         saveButton.setText(resources.getString("event.addButton"));
     }
 
@@ -196,17 +296,30 @@ public class EventController {
             tags.add(0, translatedCategory.toLowerCase());
         }
 
+        Recurrence recurrence = buildRecurrence();
+
         // Update the event if in edit mode, otherwise create a new event
         if (isEditMode && event != null) {
-            event.setTitle(title);
-            event.setDateTime(date.atTime(startLocalTime));
-            event.setEndDateTime(date.atTime(endLocalTime));
-            event.setDescription(description);
-            event.setTags(tags);
-            event.setCategory(selectedCategory);
-            mainController.updateEvent();
+            // Editing an occurrence edits its series; moving the occurrence moves the series by as many days
+            Event stored = event;
+            if (event.getSeries() != null) {
+                stored = event.getSeries();
+                date = stored.getDateTime().toLocalDate().plusDays(ChronoUnit.DAYS.between(event.getDateTime().toLocalDate(), date));
+            }
+            if (recurrence != null && stored.getRecurrence() != null) {
+                recurrence.setExceptions(stored.getRecurrence().getExceptions());
+            }
+            stored.setTitle(title);
+            stored.setDateTime(date.atTime(startLocalTime));
+            stored.setEndDateTime(date.atTime(endLocalTime));
+            stored.setDescription(description);
+            stored.setTags(tags);
+            stored.setCategory(selectedCategory);
+            stored.setRecurrence(recurrence);
+            mainController.updateEvent(stored);
         } else {
             Event newEvent = new Event(title, date.atTime(startLocalTime), date.atTime(endLocalTime), description, String.join(", ", tags), selectedCategory);
+            newEvent.setRecurrence(recurrence);
             mainController.addEvent(newEvent);
         }
     }
@@ -233,6 +346,13 @@ public class EventController {
             return false;
         }
 
+        String count = repeatCountField.getText();
+        if (!"repeat.none".equals(repeatComboBox.getValue()) && count != null && !count.isBlank()
+                && (!count.trim().matches("\\d{1,6}") || Integer.parseInt(count.trim()) == 0)) {
+            showValidationError(resources.getString("validation.repeatCount"));
+            return false;
+        }
+
         return true;
     }
 
@@ -275,13 +395,13 @@ public class EventController {
     }
 
     /**
-     * Confirms and deletes the event if confirmed.
+     * Asks for confirmation with the given text and runs the deletion if confirmed.
      */
-    private void confirmAndDeleteEvent() {
+    private void confirmAndDelete(String confirmationText, Runnable deletion) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle(resources.getString("event.deleteConfirmationTitle"));
         alert.setHeaderText(null);
-        alert.setContentText(resources.getString("event.deleteConfirmationText"));
+        alert.setContentText(confirmationText);
 
         ButtonType deleteButtonType = new ButtonType(resources.getString("button.delete"), ButtonBar.ButtonData.OK_DONE);
         ButtonType cancelButtonType = new ButtonType(resources.getString("button.cancel"), ButtonBar.ButtonData.CANCEL_CLOSE);
@@ -290,7 +410,7 @@ public class EventController {
 
         alert.showAndWait().ifPresent(type -> {
             if (type == deleteButtonType) {
-                mainController.deleteEvent(event);
+                deletion.run();
                 closeWindow();
                 mainController.refreshViews();
             }
@@ -1,11 +1,16 @@
 package com.example.controller;
 
+import com.example.index.SearchIndex;
+import com.example.index.TagIndex;
 import com.example.model.CalendarView;
 import com.example.model.Category;
-import com.example.service.DataStorage;
+import com.example.service.PersistenceService;
 import com.example.model.Event;
 import com.example.model.Note;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.transformation.FilteredList;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -25,19 +30,38 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class MainController {
 
+    private static final String STARTUP_TIMING_PROPERTY = "noteplanner.startup.timing";
+
+    /**
+     * Notes shown at once when ranked by relevance; more are ranked as the list is scrolled to its end
+     */
+    private static final int RANKED_PAGE_SIZE = 50;
+    private static final Map<SearchIndex.Field, Double> RANKING_BOOSTS = Map.of(
+            SearchIndex.Field.TITLE, 3.0,
+            SearchIndex.Field.TAGS, 2.0,
+            SearchIndex.Field.DESCRIPTION, 1.0);
+
     @FXML
     private TextField searchField;
     @FXML
+    private ToggleButton rankedToggle;
+    @FXML
     private ComboBox<String> filterOptions;
     @FXML
     private Button saveButton;
@@ -59,13 +83,31 @@ public class MainController {
     private Button moveUpButton;
     @FXML
     private Button moveDownButton;
+    @FXML
+    private ProgressIndicator loadingIndicator;
 
     private CalendarController calendarController;
     private ObservableList<Note> notes;
     private ObservableList<Event> events;
     private ResourceBundle bundle;
-    private List<CheckBox> categoryCheckboxes;
-    private ScheduledExecutorService autosaveScheduler;
+    private FilteredList<Note> visibleNotes;
+    private FilteredList<Event> visibleEvents;
+    private final Set<Category> shownCategories = EnumSet.allOf(Category.class);
+    private Set<Note> noteSearchMatches;
+    private Set<Event> eventSearchMatches;
+    private SearchIndex.Ranking<Note> noteRanking;
+    private final ObservableList<Note> rankedNotes = FXCollections.observableArrayList();
+    private boolean moreRankedNotesPending;
+    private BackgroundSearch<SearchQuery, SearchResult> backgroundSearch;
+    private String storageSearch; // The last search run in the storage, as filter option and text
+    private long contentVersion;
+    private PersistenceService persistenceService;
+    private final SearchIndex<Note> noteSearchIndex = new SearchIndex<>(Note::getTitle, Note::getContent, Note::getCategory, Note::getTagsAsString);
+    private final SearchIndex<Event> eventSearchIndex = new SearchIndex<>(Event::getTitle, Event::getDescription, Event::getCategory, Event::getTagsAsString);
+    private final TagIndex<Note> noteTagIndex = new TagIndex<>(Note::getTags);
+    private final TagIndex<Event> eventTagIndex = new TagIndex<>(Event::getTags);
+    private boolean loadRefreshPending;
+    private final Set<YearMonth> requestedMonths = new HashSet<>(); // Stored events loaded, or being loaded
 
     /**
      * Loads the appropriate resource bundle based on the locale.
@@ -80,13 +122,22 @@ public class MainController {
     @FXML
     private void initialize() {
         bundle = ResourceBundle.getBundle("com.example.i18n.messages", new Locale("pl"));
-
-        // Load notes and events from storage
-        notes = FXCollections.observableArrayList(DataStorage.loadNotes());
-        events = FXCollections.observableArrayList(DataStorage.loadEvents());
-
-        // Start the autosave functionality
-        startAutosave();
+        mainLayout.getStylesheets().add(Styles.stylesheet());
+
+        // Save changes in the background shortly after they are made
+        persistenceService = new PersistenceService();
+
+        // The lists start empty and are filled by loadData() once the window is up
+        notes = FXCollections.observableArrayList();
+        events = FXCollections.observableArrayList();
+        notes.addListener(searchIndexUpdater(noteSearchIndex, noteTagIndex));
+        events.addListener(searchIndexUpdater(eventSearchIndex, eventTagIndex));
+        visibleNotes = new FilteredList<>(notes);
+        visibleEvents = new FilteredList<>(events);
+        ListChangeListener<Object> contentChanged = change -> contentVersion++;
+        notes.addListener(contentChanged);
+        events.addListener(contentChanged);
+        backgroundSearch = new BackgroundSearch<>(this::search, this::showSearchResult, notesListView);
 
         // Add category display for filtering
         addCategoryDisplay();
@@ -109,6 +160,73 @@ public class MainController {
         // Update texts in the UI
         updateTexts();
         updateCategoryDisplay();
+
+        // Load notes and events in the background; events stored by month are loaded as the calendar shows them
+        loadData();
+    }
+
+    /**
+     * Loads notes and events on background threads and appends them to the lists in batches, so the window
+     * is shown right away and fills in while the files are read.
+     */
+    private void loadData() {
+        long start = System.nanoTime();
+        loadingIndicator.setVisible(true);
+        notesListView.setPlaceholder(new Label(bundle.getString("loading.placeholder")));
+        persistenceService.loadAsync(
+                batch -> Platform.runLater(() -> {
+                    notes.addAll(batch);
+                    scheduleLoadRefresh();
+                }),
+                batch -> Platform.runLater(() -> {
+                    events.addAll(batch);
+                    scheduleLoadRefresh();
+                })
+        ).whenComplete((result, error) -> Platform.runLater(() -> {
+            loadingIndicator.setVisible(false);
+            notesListView.setPlaceholder(null);
+            if (Boolean.getBoolean(STARTUP_TIMING_PROPERTY)) {
+                System.out.println("Loaded " + notes.size() + " notes and " + events.size() + " events in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        }));
+    }
+
+    /**
+     * Redraws the calendar, and reapplies an active search, once the batches queued so far are in the lists.
+     */
+    private void scheduleLoadRefresh() {
+        if (loadRefreshPending) {
+            return;
+        }
+        loadRefreshPending = true;
+        Platform.runLater(() -> {
+            loadRefreshPending = false;
+            if (searchField.getText().trim().isEmpty()) {
+                calendarController.updateCalendarView(calendarController.getLastActiveView());
+            } else {
+                handleSearch();
+            }
+        });
+    }
+
+    /**
+     * Keeps the search indexes in step with additions to and removals from a list; items edited in place are
+     * refiled by updateNote and updateEvent.
+     */
+    private static <T> ListChangeListener<T> searchIndexUpdater(SearchIndex<T> index, TagIndex<T> tagIndex) {
+        return change -> {
+            while (change.next()) {
+                if (!change.wasPermutated()) {
+                    for (T removed : change.getRemoved()) {
+                        index.remove(removed);
+                        tagIndex.remove(removed);
+                    }
+                    index.addAll(change.getAddedSubList());
+                    tagIndex.addAll(change.getAddedSubList());
+                }
+            }
+        };
     }
 
     /**
@@ -119,7 +237,7 @@ public class MainController {
         calendarController.setMainController(this);
         calendarController.setCalendarView(calendarView);
         calendarController.setCurrentDate(LocalDate.now());
-        calendarController.setEvents(events);
+        calendarController.setEvents(visibleEvents);
         calendarController.setViewSelector(viewSelector, bundle);
         calendarController.updateCalendarView(CalendarView.MONTH);
     }
@@ -152,7 +270,7 @@ public class MainController {
      * Sets up the notes list view, including its cell factory and event handlers.
      */
     private void setupNotesListView() {
-        notesListView.setItems(notes);
+        notesListView.setItems(visibleNotes);
         notesListView.setCellFactory(listView -> new ListCell<>() {
             @Override
             protected void updateItem(Note note, boolean empty) {
@@ -163,7 +281,7 @@ public class MainController {
                 } else {
                     String[] lines = note.getContent().split("\n", 4);
                     Label titleLabel = new Label(note.getTitle());
-                    titleLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+                    titleLabel.getStyleClass().add(Styles.NOTE_TITLE);
 
                     StringBuilder remainingContent = new StringBuilder();
                     for (int i = 1; i < lines.length && i <= 2; i++) {
@@ -171,18 +289,24 @@ public class MainController {
                     }
 
                     Label contentLabel = new Label(remainingContent.toString());
-                    contentLabel.setStyle("-fx-font-size: 12px;");
+                    contentLabel.getStyleClass().add(Styles.NOTE_CONTENT);
                     Label tagsLabel = new Label(note.getTagsAsString());
-                    tagsLabel.setStyle("-fx-text-fill: #888888; -fx-font-size: 10px;");
+                    tagsLabel.getStyleClass().add(Styles.NOTE_TAGS);
 
                     VBox coloredBox = new VBox();
-                    coloredBox.setStyle("-fx-background-color: " + note.getCategory().getColor() + "; -fx-min-width: 5px;");
+                    coloredBox.getStyleClass().add(Styles.NOTE_MARKER);
+                    Styles.setCategory(coloredBox, note.getCategory());
                     VBox contentBox = new VBox(titleLabel, contentLabel, tagsLabel);
                     contentBox.setSpacing(5);
 
                     HBox hBox = new HBox(coloredBox, contentBox);
                     hBox.setSpacing(10);
                     setGraphic(hBox);
+
+                    // Showing the last ranked note ranks the next page
+                    if (getListView().getItems() == rankedNotes && getIndex() == rankedNotes.size() - 1) {
+                        showMoreRankedNotes();
+                    }
                 }
             }
         });
@@ -230,6 +354,8 @@ public class MainController {
         Note note = notes.remove(selectedIndex);
         notes.add(selectedIndex + 1, note);
         notesListView.getSelectionModel().select(selectedIndex + 1);
+        persistenceService.noteRemoved(selectedIndex);
+        persistenceService.noteAdded(selectedIndex + 1, note);
     }
 
     /**
@@ -244,16 +370,19 @@ public class MainController {
         Note note = notes.remove(selectedIndex);
         notes.add(selectedIndex - 1, note);
         notesListView.getSelectionModel().select(selectedIndex - 1);
+        persistenceService.noteRemoved(selectedIndex);
+        persistenceService.noteAdded(selectedIndex - 1, note);
     }
 
     /**
      * Updates the state of the move buttons based on selection and search status.
      */
     private void updateMoveButtonsState(boolean noSelection) {
-        boolean isSearching = !searchField.getText().trim().isEmpty();
+        // Indices of the shown list only match the note list while nothing is filtered out
+        boolean isFiltered = !searchField.getText().trim().isEmpty() || shownCategories.size() < Category.values().length;
 
-        moveUpButton.setDisable(noSelection || isSearching || notesListView.getSelectionModel().getSelectedIndex() <= 0);
-        moveDownButton.setDisable(noSelection || isSearching || notesListView.getSelectionModel().getSelectedIndex() >= notesListView.getItems().size() - 1);
+        moveUpButton.setDisable(noSelection || isFiltered || notesListView.getSelectionModel().getSelectedIndex() <= 0);
+        moveDownButton.setDisable(noSelection || isFiltered || notesListView.getSelectionModel().getSelectedIndex() >= notesListView.getItems().size() - 1);
     }
 
     /**
@@ -261,8 +390,7 @@ public class MainController {
      */
     private void addCategoryDisplay() {
         HBox categoryBox = new HBox(20);
-        categoryBox.setStyle("-fx-padding: 10px; -fx-background-color: #f4f4f4;");
-        categoryCheckboxes = new ArrayList<>();
+        categoryBox.getStyleClass().add(Styles.CATEGORY_BAR);
 
         for (Category category : Category.values()) {
             addCategoryToDisplay(category, categoryBox);
@@ -278,38 +406,13 @@ public class MainController {
         setCategoryDisplay(categoryBox, category);
     }
 
-    /**
-     * Filters notes and events based on the selected categories.
-     */
-    private void filterNotesAndEvents() {
-        List<Category> selectedCategories = categoryCheckboxes.stream()
-                .filter(CheckBox::isSelected)
-                .map(cb -> Category.values()[categoryCheckboxes.indexOf(cb)])
-                .toList();
-
-        // Filter notes by selected categories
-        ObservableList<Note> filteredNotes = notes.filtered(note -> selectedCategories.contains(note.getCategory()));
-
-        // Filter events by selected categories
-        ObservableList<Event> filteredEvents = events.filtered(event -> selectedCategories.contains(event.getCategory()));
-
-        // Display the filtered notes and events
-        notesListView.setItems(filteredNotes);
-        notesListView.refresh();
-
-        // Update the calendar view with filtered events
-        calendarController.setEvents(filteredEvents);
-        calendarController.updateCalendarView(calendarController.getLastActiveView());
-    }
-
     /**
      * Handles manual save action.
      */
     @FXML
     private void handleManualSave() {
         try {
-            DataStorage.saveNotes(notes);
-            DataStorage.saveEvents(events);
+            persistenceService.saveAll();
             showSaveConfirmation();
         } catch (IOException e) {
             e.printStackTrace();
@@ -318,36 +421,14 @@ public class MainController {
     }
 
     /**
-     * Starts the autosave functionality.
-     */
-    private void startAutosave() {
-        autosaveScheduler = Executors.newScheduledThreadPool(1);
-        autosaveScheduler.scheduleAtFixedRate(() -> {
-            try {
-                DataStorage.saveNotes(notes);
-                DataStorage.saveEvents(events);
-                System.out.println("Autosave executed");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }, 5, 5, TimeUnit.MINUTES); // Start after 5 minutes, repeat every 5 minutes
-    }
-
-    /**
-     * Stops the autosave functionality and saves data before application shutdown.
+     * Writes any unsaved changes and stops the background persistence before application shutdown.
      */
     public void stop() {
-        if (autosaveScheduler != null && !autosaveScheduler.isShutdown()) {
-            autosaveScheduler.shutdown();
-            try {
-                autosaveScheduler.awaitTermination(10, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        if (persistenceService == null) {
+            return;
         }
         try {
-            DataStorage.saveNotes(notes);
-            DataStorage.saveEvents(events);
+            persistenceService.shutdown();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -389,11 +470,11 @@ public class MainController {
 
         calendarController.setResources(bundle);
         calendarController.updateButtonLabels(bundle);
-        calendarController.setEvents(events);
         calendarController.updateDateInfoLabel(bundle);
         refreshViews();
 
         viewSelector.setItems(FXCollections.observableArrayList(
+                bundle.getString("calendar.year"),
                 bundle.getString("calendar.month"),
                 bundle.getString("calendar.week"),
                 bundle.getString("calendar.day")
@@ -414,8 +495,7 @@ public class MainController {
      */
     private void updateCategoryDisplay() {
         HBox categoryBox = new HBox(20);
-        categoryBox.setStyle("-fx-padding: 10px; -fx-background-color: #f4f4f4;");
-        categoryCheckboxes = new ArrayList<>();
+        categoryBox.getStyleClass().add(Styles.CATEGORY_BAR);
 
         for (Category category : Category.values()) {
             setCategoryDisplay(categoryBox, category);
@@ -431,8 +511,11 @@ public class MainController {
         colorCircle.setStroke(Color.web(category.getColor())); // Initially, no outline
 
         CheckBox categoryCheckBox = new CheckBox();
-        categoryCheckBox.setStyle("-fx-opacity: 0;"); // Hide the default checkbox
-        categoryCheckBox.setSelected(true); // Default to selected
+        categoryCheckBox.getStyleClass().add(Styles.CATEGORY_CHECK_BOX); // Hide the default checkbox
+        categoryCheckBox.setSelected(shownCategories.contains(category)); // Rebuilt displays keep the selection
+        if (!categoryCheckBox.isSelected()) {
+            colorCircle.setFill(Color.TRANSPARENT);
+        }
 
         categoryCheckBox.selectedProperty().addListener((obs, wasSelected, isNowSelected) -> {
             if (isNowSelected) {
@@ -442,20 +525,23 @@ public class MainController {
                 colorCircle.setFill(Color.TRANSPARENT); // Transparent when not selected
                 colorCircle.setStroke(Color.web(category.getColor())); // Outline when not selected
             }
-            filterNotesAndEvents(); // Apply the filter whenever a checkbox is toggled
+            if (isNowSelected) {
+                shownCategories.add(category);
+            } else {
+                shownCategories.remove(category);
+            }
+            applyFilters(); // Apply the filter whenever a checkbox is toggled
         });
 
         Label categoryLabel = new Label(category.getTranslatedName(bundle));
-        categoryLabel.setStyle("-fx-font-size: 12px;");
 
         HBox itemBox = new HBox(5, colorCircle, categoryLabel);
         itemBox.setAlignment(Pos.CENTER_LEFT);
         HBox.setHgrow(itemBox, Priority.ALWAYS);
         itemBox.setMaxWidth(Double.MAX_VALUE);
-        itemBox.setStyle("-fx-alignment: center;");
+        itemBox.getStyleClass().add(Styles.CATEGORY_ITEM);
 
         categoryBox.getChildren().add(itemBox);
-        categoryCheckboxes.add(categoryCheckBox);
         itemBox.setOnMouseClicked(event -> categoryCheckBox.setSelected(!categoryCheckBox.isSelected()));
     }
 
@@ -472,10 +558,12 @@ public class MainController {
      */
     private void updateTexts() {
         searchField.setPromptText(bundle.getString("note.searchPlaceholder"));
+        rankedToggle.setText(bundle.getString("search.ranked"));
         addNoteButton.setText(bundle.getString("note.addButton"));
         saveButton.setText(bundle.getString("save.buttonText"));
 
         viewSelector.setItems(FXCollections.observableArrayList(
+                bundle.getString("calendar.year"),
                 bundle.getString("calendar.month"),
                 bundle.getString("calendar.week"),
                 bundle.getString("calendar.day")
@@ -548,7 +636,10 @@ public class MainController {
      * Adds a new event to the list and applies the search filter if active.
      */
     public void addEvent(Event event) {
+        LocalDate date = event.getDateTime().toLocalDate();
+        ensureEventsLoaded(date, date);
         events.add(event);
+        persistenceService.eventAdded(events.size() - 1, event);
         handleSearch();
     }
 
@@ -556,142 +647,448 @@ public class MainController {
      * Adds a new note to the list and refreshes the list view.
      */
     public void addNote(Note note) {
+        // Added to the matches first, so the filtered list shows the note if it matches the active search
+        if (noteSearchMatches != null && noteMatches(note, searchField.getText().toLowerCase(), filterOptions.getValue())) {
+            noteSearchMatches.add(note);
+        }
         notes.add(note);
-        notesListView.setItems(notes);
+        persistenceService.noteAdded(notes.size() - 1, note);
+        if (noteRanking != null) {
+            handleSearch(); // Ranked again to place the note
+        }
         notesListView.refresh();
     }
 
     /**
      * Updates the note in the list and refreshes the list view.
      */
-    public void updateNote() {
+    public void updateNote(Note note) {
+        int index = notes.indexOf(note);
+        if (index >= 0) {
+            persistenceService.noteUpdated(index, note);
+        }
+        noteSearchIndex.update(note);
+        noteTagIndex.update(note);
+        contentVersion++;
         notesListView.refresh();
+        if (!searchField.getText().trim().isEmpty()) {
+            handleSearch(); // The edit may have changed whether the note matches
+        }
     }
 
     /**
      * Updates the calendar view.
      */
-    public void updateEvent() {
+    public void updateEvent(Event event) {
+        LocalDate date = event.getDateTime().toLocalDate();
+        ensureEventsLoaded(date, date);
+        int index = events.indexOf(event);
+        if (index >= 0) {
+            persistenceService.eventUpdated(index, event);
+        }
+        calendarController.eventUpdated(event);
+        eventSearchIndex.update(event);
+        eventTagIndex.update(event);
+        contentVersion++;
         calendarController.updateCalendarView(calendarController.getLastActiveView());
+        if (!searchField.getText().trim().isEmpty()) {
+            handleSearch(); // The edit may have changed whether the event matches
+        }
+    }
+
+    /**
+     * Makes sure the stored events between from and to (inclusive) get into memory. Months asked for before
+     * are skipped without going to storage, so views call this on every render; the other months are loaded in
+     * the background and the views are refreshed once their events are in the list. Only storage that loads
+     * events by range loads anything here; otherwise all events are loaded at startup.
+     *
+     * <p>Changes recorded after this call are stored after the load, so adding or editing an event right away
+     * cannot load it a second time.
+     *
+     * @return completes on the FX thread once the events are in the list
+     */
+    public CompletableFuture<Void> ensureEventsLoaded(LocalDate from, LocalDate to) {
+        if (!persistenceService.isEventsLoadedByRange()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            if (requestedMonths.add(month)) {
+                months.add(month);
+            }
+        }
+        if (months.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return persistenceService.loadEventRange(months.get(0).atDay(1), months.get(months.size() - 1).atEndOfMonth())
+                .handleAsync((result, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        months.forEach(requestedMonths::remove); // Asked for again by the next render
+                    }
+                    addLoadedEvents();
+                    return null;
+                }, Platform::runLater);
+    }
+
+    /**
+     * Adds the events loaded by ensureEventsLoaded to the event list, in the order they were loaded, which is
+     * the order the storage keeps them in.
+     */
+    private void addLoadedEvents() {
+        List<Event> loaded = persistenceService.takeLoadedEvents();
+        if (loaded.isEmpty()) {
+            return;
+        }
+        // Search matches are collected per search, so loaded events matching the active one are added first
+        if (eventSearchMatches != null) {
+            String searchText = searchField.getText().toLowerCase();
+            for (Event event : loaded) {
+                if (eventMatches(event, searchText, filterOptions.getValue())) {
+                    eventSearchMatches.add(event);
+                }
+            }
+        }
+        events.addAll(loaded);
+        scheduleLoadRefresh();
+    }
+
+    /**
+     * A search with copies of the lists taken when it started, and the version of their contents then
+     */
+    private record SearchQuery(String searchText, String filterOption, boolean ranked, List<Note> notes,
+                               List<Event> events, long contentVersion) {
+    }
+
+    /**
+     * The matching notes and events, and the matching notes ranked by relevance if asked for
+     */
+    private record SearchResult(SearchQuery query, Set<Note> notes, Set<Event> events, SearchIndex.Ranking<Note> ranking) {
     }
 
     /**
-     * Handles search functionality, filtering notes and events based on user input.
+     * Handles search functionality, filtering notes and events based on user input. The search runs in the
+     * background once the input settles; clearing the search shows everything right away.
      */
     @FXML
     private void handleSearch() {
         String searchText = searchField.getText().toLowerCase();
         boolean isSearching = !searchText.trim().isEmpty();
         String filterOption = filterOptions.getValue();
-        ObservableList<Note> filteredNotes = FXCollections.observableArrayList();
-        ObservableList<Event> filteredEvents = FXCollections.observableArrayList();
 
         if (filterOption == null) {
             return; // Exit if filter option or search text is null
         }
 
-        applySearchFilterToNotes(searchText, filterOption, filteredNotes);
-        applySearchFilterToEvents(searchText, filterOption, filteredEvents);
+        if (!isSearching) {
+            backgroundSearch.cancel();
+            storageSearch = null;
+            noteSearchMatches = null;
+            eventSearchMatches = null;
+            noteRanking = null;
+            applyFilters();
+            return;
+        }
+        // The lists are only changed on the FX thread, so the search reads copies of them
+        boolean ranked = rankedToggle.isSelected();
+        backgroundSearch.request(() -> new SearchQuery(searchText, filterOption, ranked, new ArrayList<>(notes),
+                new ArrayList<>(events), contentVersion));
+    }
 
-        // Update the ListView with filtered or original notes based on the search status
-        notesListView.setItems(isSearching ? filteredNotes : notes);
-        notesListView.refresh();
+    /**
+     * Collects the matches of a query. Runs on the search thread.
+     */
+    private SearchResult search(SearchQuery query) {
+        Set<Note> noteMatches = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Event> eventMatches = Collections.newSetFromMap(new IdentityHashMap<>());
+        applySearchFilterToNotes(query.searchText(), query.filterOption(), query.notes(), noteMatches);
+        applySearchFilterToEvents(query.searchText(), query.filterOption(), query.events(), eventMatches);
+
+        SearchIndex.Ranking<Note> ranking = null;
+        if (query.ranked()) {
+            // Ranked in list order, which breaks ties between equally relevant notes
+            List<Note> matchingNotes = new ArrayList<>(noteMatches.size());
+            for (Note note : query.notes()) {
+                if (noteMatches.contains(note)) {
+                    matchingNotes.add(note);
+                }
+            }
+            BackgroundSearch.checkCancelled();
+            ranking = noteSearchIndex.rank(query.searchText(), matchingNotes, RANKING_BOOSTS);
+        }
+        return new SearchResult(query, noteMatches, eventMatches, ranking);
+    }
 
-        // Update the CalendarView with filtered or original events based on the search status
-        calendarController.setEvents(filteredEvents);
+    private void showSearchResult(SearchResult result) {
+        noteSearchMatches = result.notes();
+        eventSearchMatches = result.events();
+        noteRanking = result.ranking();
+        applyFilters();
+        searchStoredEvents(result.query().searchText(), result.query().filterOption());
+        // Notes or events added or edited while the search ran may be missing from its result
+        if (result.query().contentVersion() != contentVersion) {
+            handleSearch();
+        }
+    }
+
+    /**
+     * With events loaded by range only the months shown so far are in memory, so category and tag searches
+     * also run in the storage, which can answer them without loading every month. The months holding matches
+     * are then loaded, and their matching events join the shown result as they arrive.
+     */
+    private void searchStoredEvents(String searchText, String filterOption) {
+        String search = filterOption + "\n" + searchText;
+        if (!persistenceService.isEventsLoadedByRange() || search.equals(storageSearch)) {
+            return;
+        }
+        storageSearch = search;
+        CompletableFuture<Set<YearMonth>> months;
+        if (filterOption.equals(bundle.getString("filter.category"))) {
+            Set<Category> categories = EnumSet.noneOf(Category.class);
+            for (Category category : Category.values()) {
+                if (searchableCategoryName(category).contains(searchText)) {
+                    categories.add(category);
+                }
+            }
+            if (categories.isEmpty()) {
+                return;
+            }
+            months = persistenceService.findEventMonthsByCategory(categories);
+        } else if (filterOption.equals(bundle.getString("filter.tags")) && !tagTerms(searchText).isEmpty()) {
+            months = persistenceService.findEventMonthsByTags(tagTerms(searchText));
+        } else {
+            return;
+        }
+        months.whenCompleteAsync((found, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            for (YearMonth month : found) {
+                ensureEventsLoaded(month.atDay(1), month.atEndOfMonth());
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Shows the notes and events of the selected categories that match the active search. The list view and
+     * the calendar keep showing the same filtered lists; only their predicates are replaced, so each change
+     * costs one pass over the items.
+     */
+    private void applyFilters() {
+        boolean allCategoriesShown = shownCategories.size() == Category.values().length;
+        Set<Note> noteMatches = noteSearchMatches;
+        Set<Event> eventMatches = eventSearchMatches;
+        visibleNotes.setPredicate(allCategoriesShown && noteMatches == null ? null
+                : note -> isCategoryShown(note.getCategory()) && (noteMatches == null || noteMatches.contains(note)));
+        visibleEvents.setPredicate(allCategoriesShown && eventMatches == null ? null
+                : event -> isCategoryShown(event.getCategory()) && (eventMatches == null || eventMatches.contains(event)));
+
+        // Ranked notes are shown from their own list, starting with the best page
+        if (noteRanking != null) {
+            noteRanking.rewind();
+            rankedNotes.setAll(noteRanking.next(RANKED_PAGE_SIZE, note -> isCategoryShown(note.getCategory())));
+        } else {
+            rankedNotes.clear();
+        }
+        ObservableList<Note> shownNotes = noteRanking != null ? rankedNotes : visibleNotes;
+        if (notesListView.getItems() != shownNotes) {
+            notesListView.setItems(shownNotes);
+        }
+
+        notesListView.refresh();
         calendarController.updateCalendarView(calendarController.getLastActiveView());
+        updateMoveButtonsState(notesListView.getSelectionModel().getSelectedItem() == null);
+    }
+
+    /**
+     * Appends the next page of ranked notes, after the cell being updated has been laid out.
+     */
+    private void showMoreRankedNotes() {
+        if (moreRankedNotesPending) {
+            return;
+        }
+        moreRankedNotesPending = true;
+        Platform.runLater(() -> {
+            moreRankedNotesPending = false;
+            if (noteRanking != null) {
+                rankedNotes.addAll(noteRanking.next(RANKED_PAGE_SIZE, note -> isCategoryShown(note.getCategory())));
+            }
+        });
+    }
 
-        // Update move buttons state based on search status and selected index
-        updateMoveButtonsState(isSearching);
+    private boolean isCategoryShown(Category category) {
+        return category == null || shownCategories.contains(category);
     }
 
     /**
-     * Applies search filtering to notes.
+     * The indexed fields searched with the given filter option.
      */
-    private void applySearchFilterToNotes(String searchText, String filterOption, ObservableList<Note> filteredNotes) {
-        String allOption = bundle.getString("filter.all");
-        String titleOption = bundle.getString("filter.title");
-        String descriptionOption = bundle.getString("filter.description");
-        String categoryOption = bundle.getString("filter.category");
-        String tagsOption = bundle.getString("filter.tags");
+    private Set<SearchIndex.Field> searchFields(String filterOption) {
+        if (filterOption.equals(bundle.getString("filter.title"))) {
+            return EnumSet.of(SearchIndex.Field.TITLE);
+        } else if (filterOption.equals(bundle.getString("filter.description"))) {
+            return EnumSet.of(SearchIndex.Field.DESCRIPTION);
+        } else if (filterOption.equals(bundle.getString("filter.category"))) {
+            return EnumSet.of(SearchIndex.Field.CATEGORY);
+        } else if (filterOption.equals(bundle.getString("filter.tags"))) {
+            return EnumSet.of(SearchIndex.Field.TAGS);
+        }
+        return EnumSet.allOf(SearchIndex.Field.class);
+    }
 
-        for (Note note : notes) {
-            boolean matches = false;
-            String translatedCategory = note.getCategory().getTranslatedName(bundle).toLowerCase();
-
-            if (filterOption.equals(allOption)) {
-                matches = note.getTitle().toLowerCase().contains(searchText) ||
-                        note.getContent().toLowerCase().contains(searchText) ||
-                        translatedCategory.contains(searchText) ||
-                        note.getTagsAsString().toLowerCase().contains(searchText);
-            } else if (filterOption.equals(titleOption)) {
-                matches = note.getTitle().toLowerCase().contains(searchText);
-            } else if (filterOption.equals(descriptionOption)) {
-                matches = note.getContent().toLowerCase().contains(searchText);
-            } else if (filterOption.equals(categoryOption)) {
-                matches = translatedCategory.contains(searchText);
-            } else if (filterOption.equals(tagsOption)) {
-                matches = note.getTagsAsString().toLowerCase().contains(searchText);
+    /**
+     * The comma separated terms of a tags search; an item matches if it has a tag containing each of them, so
+     * "praca, raport" finds the items tagged with both.
+     */
+    private static List<String> tagTerms(String searchText) {
+        List<String> terms = new ArrayList<>();
+        for (String term : searchText.split(",")) {
+            if (!term.isBlank()) {
+                terms.add(term.trim());
             }
-            if (matches) {
-                filteredNotes.add(note);
+        }
+        return terms;
+    }
+
+    /**
+     * The name a category is searched by, in the current language.
+     */
+    private String searchableCategoryName(Category category) {
+        return category.getTranslatedName(bundle).toLowerCase();
+    }
+
+    /**
+     * Items having, for each of terms, a tag containing it.
+     */
+    private static boolean matchesTagTerms(List<String> tags, List<String> terms) {
+        for (String term : terms) {
+            if (tags.stream().noneMatch(tag -> tag.toLowerCase().contains(term))) {
+                return false;
             }
         }
+        return true;
     }
 
     /**
-     * Applies search filtering to events.
+     * Collects the notes matching the search. Only the candidates of the search indexes are checked, or every
+     * one of notes if the search has no word to look up.
      */
-    private void applySearchFilterToEvents(String searchText, String filterOption, ObservableList<Event> filteredEvents) {
+    private void applySearchFilterToNotes(String searchText, String filterOption, List<Note> notes, Collection<Note> matches) {
+        List<String> tagTerms = filterOption.equals(bundle.getString("filter.tags")) ? tagTerms(searchText) : List.of();
+        if (!tagTerms.isEmpty()) {
+            matches.addAll(noteTagIndex.itemsMatchingAll(tagTerms));
+            return;
+        }
+        Set<Note> candidates = noteSearchIndex.candidates(searchText, searchFields(filterOption), this::searchableCategoryName);
+        for (Note note : candidates != null ? candidates : notes) {
+            BackgroundSearch.checkCancelled();
+            if (noteMatches(note, searchText, filterOption)) {
+                matches.add(note);
+            }
+        }
+    }
+
+    private boolean noteMatches(Note note, String searchText, String filterOption) {
         String allOption = bundle.getString("filter.all");
         String titleOption = bundle.getString("filter.title");
         String descriptionOption = bundle.getString("filter.description");
         String categoryOption = bundle.getString("filter.category");
         String tagsOption = bundle.getString("filter.tags");
+        String translatedCategory = note.getCategory().getTranslatedName(bundle).toLowerCase();
+
+        if (filterOption.equals(allOption)) {
+            return note.getTitle().toLowerCase().contains(searchText) ||
+                    note.getContent().toLowerCase().contains(searchText) ||
+                    translatedCategory.contains(searchText) ||
+                    note.getTagsAsString().toLowerCase().contains(searchText);
+        } else if (filterOption.equals(titleOption)) {
+            return note.getTitle().toLowerCase().contains(searchText);
+        } else if (filterOption.equals(descriptionOption)) {
+            return note.getContent().toLowerCase().contains(searchText);
+        } else if (filterOption.equals(categoryOption)) {
+            return translatedCategory.contains(searchText);
+        } else if (filterOption.equals(tagsOption)) {
+            return matchesTagTerms(note.getTags(), tagTerms(searchText));
+        }
+        return false;
+    }
 
-        for (Event event : events) {
-            boolean matches = false;
-            String translatedCategory = event.getCategory().getTranslatedName(bundle).toLowerCase();
-
-            if (filterOption.equals(allOption)) {
-                matches = event.getTitle().toLowerCase().contains(searchText) ||
-                        event.getDescription().toLowerCase().contains(searchText) ||
-                        translatedCategory.contains(searchText) ||
-                        event.getTagsAsString().toLowerCase().contains(searchText);
-            } else if (filterOption.equals(titleOption)) {
-                matches = event.getTitle().toLowerCase().contains(searchText);
-            } else if (filterOption.equals(descriptionOption)) {
-                matches = event.getDescription().toLowerCase().contains(searchText);
-            } else if (filterOption.equals(categoryOption)) {
-                matches = translatedCategory.contains(searchText);
-            } else if (filterOption.equals(tagsOption)) {
-                matches = event.getTagsAsString().toLowerCase().contains(searchText);
-            }
-            if (matches) {
-                filteredEvents.add(event);
+    /**
+     * Collects the events matching the search. Only the candidates of the search indexes are checked, or every
+     * one of events if the search has no word to look up.
+     */
+    private void applySearchFilterToEvents(String searchText, String filterOption, List<Event> events, Collection<Event> matches) {
+        List<String> tagTerms = filterOption.equals(bundle.getString("filter.tags")) ? tagTerms(searchText) : List.of();
+        if (!tagTerms.isEmpty()) {
+            matches.addAll(eventTagIndex.itemsMatchingAll(tagTerms));
+            return;
+        }
+        Set<Event> candidates = eventSearchIndex.candidates(searchText, searchFields(filterOption), this::searchableCategoryName);
+        for (Event event : candidates != null ? candidates : events) {
+            BackgroundSearch.checkCancelled();
+            if (eventMatches(event, searchText, filterOption)) {
+                matches.add(event);
             }
         }
     }
 
+    private boolean eventMatches(Event event, String searchText, String filterOption) {
+        String allOption = bundle.getString("filter.all");
+        String titleOption = bundle.getString("filter.title");
+        String descriptionOption = bundle.getString("filter.description");
+        String categoryOption = bundle.getString("filter.category");
+        String tagsOption = bundle.getString("filter.tags");
+        String translatedCategory = event.getCategory().getTranslatedName(bundle).toLowerCase();
+
+        if (filterOption.equals(allOption)) {
+            return event.getTitle().toLowerCase().contains(searchText) ||
+                    event.getDescription().toLowerCase().contains(searchText) ||
+                    translatedCategory.contains(searchText) ||
+                    event.getTagsAsString().toLowerCase().contains(searchText);
+        } else if (filterOption.equals(titleOption)) {
+            return event.getTitle().toLowerCase().contains(searchText);
+        } else if (filterOption.equals(descriptionOption)) {
+            return event.getDescription().toLowerCase().contains(searchText);
+        } else if (filterOption.equals(categoryOption)) {
+            return translatedCategory.contains(searchText);
+        } else if (filterOption.equals(tagsOption)) {
+            return matchesTagTerms(event.getTags(), tagTerms(searchText));
+        }
+        return false;
+    }
+
     /**
      * Deletes a note from the list and refreshes the ListView.
      */
     public void deleteNote(Note note) {
-        if (notes.contains(note)) {
-            notes.remove(note);
-            notesListView.setItems(notes);
+        int index = notes.indexOf(note);
+        if (index >= 0) {
+            notes.remove(index);
+            persistenceService.noteRemoved(index);
+            rankedNotes.removeIf(ranked -> ranked == note);
             notesListView.refresh();
         }
     }
 
+    /**
+     * Skips one occurrence of a recurring event, leaving the rest of the series.
+     */
+    public void skipOccurrence(Event occurrence) {
+        Event series = occurrence.getSeries();
+        series.getRecurrence().addException(occurrence.getDateTime().toLocalDate());
+        updateEvent(series);
+        refreshViews();
+    }
+
     /**
      * Deletes an event and refreshes the views.
      */
     public void deleteEvent(Event event) {
-        if (events.contains(event)) {
-            events.remove(event);
-            calendarController.setEvents(events);
-            calendarController.updateCalendarView(calendarController.getLastActiveView());
+        int index = events.indexOf(event);
+        if (index >= 0) {
+            events.remove(index);
+            persistenceService.eventRemoved(index);
             refreshViews();
         }
     }
@@ -0,0 +1,193 @@
+package com.example.controller;
+
+import com.example.model.Event;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The month view, built once and rebound on every render. The grid always holds 6 weeks of day cells; event
+ * labels are moved between cells or taken from a pool, so navigating or filtering only changes texts and
+ * styles instead of creating a new scene graph.
+ */
+class MonthGrid {
+
+    private static final int WEEKS = 6;
+
+    private final ScrollPane scrollPane;
+    private final Label[] dayOfWeekLabels = new Label[7];
+    private final DayCell[] cells = new DayCell[WEEKS * 7];
+    private final Deque<Label> labelPool = new ArrayDeque<>();
+    private final Consumer<Event> openEvent;
+
+    MonthGrid(Consumer<Event> openEvent) {
+        this.openEvent = openEvent;
+
+        GridPane gridPane = new GridPane();
+        scrollPane = new ScrollPane(gridPane);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setFitToHeight(true);
+        scrollPane.setPadding(new Insets(5, 5, 5, 5));
+
+        // Day of the week headers (starting with Monday), texts are set by show
+        for (int i = 0; i < 7; i++) {
+            Label dayOfWeekLabel = new Label();
+            dayOfWeekLabel.getStyleClass().add(Styles.DAY_HEADER);
+            dayOfWeekLabel.setMaxWidth(Double.MAX_VALUE);
+            dayOfWeekLabel.setAlignment(Pos.CENTER);
+            GridPane.setHalignment(dayOfWeekLabel, HPos.CENTER);
+            dayOfWeekLabel.setPrefHeight(30);
+            dayOfWeekLabels[i] = dayOfWeekLabel;
+            gridPane.add(dayOfWeekLabel, i, 0);
+
+            ColumnConstraints dayColumnConstraints = new ColumnConstraints();
+            dayColumnConstraints.setMinWidth(100);
+            dayColumnConstraints.setHgrow(Priority.ALWAYS);
+            gridPane.getColumnConstraints().add(dayColumnConstraints);
+        }
+
+        RowConstraints headerRowConstraints = new RowConstraints();
+        headerRowConstraints.setPrefHeight(30);
+        headerRowConstraints.setMinHeight(30);
+        gridPane.getRowConstraints().add(headerRowConstraints);
+
+        for (int week = 0; week < WEEKS; week++) {
+            RowConstraints rowConstraints = new RowConstraints();
+            rowConstraints.setVgrow(Priority.ALWAYS);
+            gridPane.getRowConstraints().add(rowConstraints);
+
+            for (int day = 0; day < 7; day++) {
+                DayCell cell = new DayCell();
+                cells[week * 7 + day] = cell;
+                gridPane.add(cell.box, day, week + 1);
+            }
+        }
+    }
+
+    Node getNode() {
+        return scrollPane;
+    }
+
+    /**
+     * Rebind the grid to the weeks of month, with the events of the shown days by date
+     */
+    void show(LocalDate month, NavigableMap<LocalDate, List<Event>> eventsByDate, Locale locale) {
+        for (int i = 0; i < 7; i++) {
+            dayOfWeekLabels[i].setText(DayOfWeek.of(i + 1).getDisplayName(TextStyle.SHORT, locale));
+        }
+
+        LocalDate firstDayOfMonth = month.withDayOfMonth(1);
+        LocalDate firstShown = firstDayOfMonth.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate lastShown = month.with(TemporalAdjusters.lastDayOfMonth()).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+
+        List<List<Event>> eventsPerCell = new ArrayList<>(cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            eventsPerCell.add(eventsByDate.getOrDefault(firstShown.plusDays(i), List.of()));
+        }
+
+        // Release surplus labels first, so cells that need more can take them from the pool
+        for (int i = 0; i < cells.length; i++) {
+            cells[i].trimEventLabels(eventsPerCell.get(i).size());
+        }
+        for (int i = 0; i < cells.length; i++) {
+            LocalDate date = firstShown.plusDays(i);
+            // Rows after the last week of the month stay in the layout but are left empty, as before
+            cells[i].bind(date, !date.getMonth().equals(month.getMonth()), !date.isAfter(lastShown), eventsPerCell.get(i));
+        }
+    }
+
+    private Label takeEventLabel() {
+        Label eventLabel = labelPool.poll();
+        if (eventLabel != null) {
+            return eventLabel;
+        }
+        eventLabel = new Label();
+        eventLabel.getStyleClass().add(Styles.EVENT_CHIP);
+        eventLabel.setMaxWidth(Double.MAX_VALUE);
+        eventLabel.setWrapText(false);
+        eventLabel.setEllipsisString("...");
+
+        // Open the event currently bound to the label for editing on double-click
+        Label label = eventLabel;
+        eventLabel.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2 && label.getUserData() instanceof Event event) {
+                openEvent.accept(event);
+            }
+        });
+        return eventLabel;
+    }
+
+    /**
+     * Format event labels with start time and title
+     */
+    private static String formatEventLabel(Event event) {
+        return event.getDateTime().toLocalTime() + " " + event.getTitle();
+    }
+
+    /**
+     * One day of the grid: the day number followed by the labels of its events
+     */
+    private class DayCell {
+
+        private final VBox box = new VBox();
+        private final Label dayLabel = new Label();
+        private final List<Label> eventLabels = new ArrayList<>();
+
+        DayCell() {
+            box.getStyleClass().add(Styles.DAY_CELL);
+            box.setPadding(new Insets(2));
+            box.setFillWidth(true);
+            dayLabel.getStyleClass().add(Styles.DAY_NUMBER);
+            dayLabel.setMaxWidth(Double.MAX_VALUE);
+            dayLabel.setAlignment(Pos.TOP_RIGHT);
+            box.getChildren().add(dayLabel);
+        }
+
+        void trimEventLabels(int count) {
+            if (eventLabels.size() > count) {
+                List<Label> surplus = eventLabels.subList(count, eventLabels.size());
+                box.getChildren().removeAll(surplus);
+                for (Label eventLabel : surplus) {
+                    eventLabel.setUserData(null);
+                    labelPool.push(eventLabel);
+                }
+                surplus.clear();
+            }
+        }
+
+        void bind(LocalDate date, boolean isAdjacentMonth, boolean visible, List<Event> events) {
+            box.setVisible(visible);
+            dayLabel.setText(String.valueOf(date.getDayOfMonth()));
+            dayLabel.pseudoClassStateChanged(Styles.ADJACENT_MONTH, isAdjacentMonth);
+
+            List<Label> added = new ArrayList<>();
+            while (eventLabels.size() + added.size() < events.size()) {
+                added.add(takeEventLabel());
+            }
+            if (!added.isEmpty()) {
+                eventLabels.addAll(added);
+                box.getChildren().addAll(added);
+            }
+
+            for (int i = 0; i < events.size(); i++) {
+                Event event = events.get(i);
+                Label eventLabel = eventLabels.get(i);
+                eventLabel.setUserData(event);
+                eventLabel.setText(formatEventLabel(event));
+                Styles.setCategory(eventLabel, event.getCategory());
+            }
+        }
+    }
+}
@@ -135,7 +135,7 @@ public class NoteController {
                 note.setContent(content);
                 note.setTags(tags);
                 note.setCategory(selectedCategory);
-                mainController.updateNote();
+                mainController.updateNote(note);
             } else {
                 Note newNote = new Note(content, content, String.join(", ", tags), selectedCategory);
                 mainController.addNote(newNote);
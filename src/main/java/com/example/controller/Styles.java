@@ -0,0 +1,146 @@
+package com.example.controller;
+
+import com.example.model.Category;
+import javafx.css.PseudoClass;
+import javafx.scene.Node;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Style classes of the main window and the stylesheet defining them. The stylesheet is generated once, with
+ * one class per {@link Category} color, so nodes only switch style classes instead of each parsing its own
+ * inline style string.
+ */
+final class Styles {
+
+    static final String EVENT_CHIP = "event-chip";
+    static final String DAY_CELL = "day-cell";
+    static final String DAY_NUMBER = "day-number";
+    static final String DAY_HEADER = "day-header";
+    static final String TIMELINE_DAY_HEADER = "timeline-day-header";
+    static final String HOUR_LABEL = "hour-label";
+    static final String NOTE_TITLE = "note-title";
+    static final String NOTE_CONTENT = "note-content";
+    static final String NOTE_TAGS = "note-tags";
+    static final String NOTE_MARKER = "note-marker";
+    static final String CATEGORY_BAR = "category-bar";
+    static final String CATEGORY_ITEM = "category-item";
+    static final String CATEGORY_CHECK_BOX = "category-check-box";
+
+    /**
+     * Set on day numbers of the previous and next month shown in the month view.
+     */
+    static final PseudoClass ADJACENT_MONTH = PseudoClass.getPseudoClass("adjacent-month");
+
+    private static final String CATEGORY_PREFIX = "category-color-";
+    private static final String[] CATEGORY_CLASSES = new String[Category.values().length];
+
+    static {
+        for (Category category : Category.values()) {
+            CATEGORY_CLASSES[category.ordinal()] = CATEGORY_PREFIX + category.name().toLowerCase();
+        }
+    }
+
+    private static final String SHARED_RULES = """
+            .event-chip {
+                -fx-text-fill: white;
+                -fx-padding: 2px;
+                -fx-border-radius: 4px;
+                -fx-background-radius: 4px;
+                -fx-border-color: #000000;
+                -fx-border-width: 1px;
+            }
+            .day-cell {
+                -fx-border-color: #cccccc;
+                -fx-border-width: 0 1 1 0;
+            }
+            .day-number {
+                -fx-font-size: 12px;
+                -fx-text-fill: #333333;
+            }
+            .day-number:adjacent-month {
+                -fx-text-fill: #aaaaaa;
+            }
+            .day-header {
+                -fx-font-size: 12px;
+                -fx-fill: #333333;
+            }
+            .timeline-day-header {
+                -fx-font-size: 14px;
+                -fx-fill: #333333;
+            }
+            .hour-label {
+                -fx-font-size: 12px;
+                -fx-text-fill: #333333;
+            }
+            .note-title {
+                -fx-font-weight: bold;
+                -fx-font-size: 14px;
+            }
+            .note-content {
+                -fx-font-size: 12px;
+            }
+            .note-tags {
+                -fx-text-fill: #888888;
+                -fx-font-size: 10px;
+            }
+            .note-marker {
+                -fx-min-width: 5px;
+            }
+            .category-bar {
+                -fx-padding: 10px;
+                -fx-background-color: #f4f4f4;
+            }
+            .category-item {
+                -fx-alignment: center;
+            }
+            .category-item .label {
+                -fx-font-size: 12px;
+            }
+            .category-check-box {
+                -fx-opacity: 0;
+            }
+            """;
+
+    private static final String STYLESHEET = generateStylesheet();
+
+    private Styles() {
+    }
+
+    /**
+     * URL of the generated stylesheet, to be added to the stylesheets of a scene or parent.
+     */
+    static String stylesheet() {
+        return STYLESHEET;
+    }
+
+    static String categoryClass(Category category) {
+        return CATEGORY_CLASSES[category.ordinal()];
+    }
+
+    /**
+     * Gives node the background color of category, replacing the class of any previous category. The list
+     * is left untouched if the class is already set, which is the common case when pooled nodes are rebound.
+     */
+    static void setCategory(Node node, Category category) {
+        List<String> styleClasses = node.getStyleClass();
+        if (category != null && styleClasses.contains(categoryClass(category))) {
+            return;
+        }
+        styleClasses.removeIf(styleClass -> styleClass.startsWith(CATEGORY_PREFIX));
+        if (category != null) {
+            styleClasses.add(categoryClass(category));
+        }
+    }
+
+    private static String generateStylesheet() {
+        StringBuilder css = new StringBuilder(SHARED_RULES);
+        for (Category category : Category.values()) {
+            css.append('.').append(categoryClass(category))
+                    .append(" {\n    -fx-background-color: ").append(category.getColor()).append(";\n}\n");
+        }
+        return "data:text/css;base64," + Base64.getEncoder().encodeToString(css.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
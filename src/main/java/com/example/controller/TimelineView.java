@@ -0,0 +1,237 @@
+package com.example.controller;
+
+import com.example.layout.TimelineLayout;
+import com.example.model.Event;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The week and day views, built once and shared by both. Only the hour rows inside the viewport, plus a
+ * buffer above and below, exist as nodes; rows and event labels leaving that range go back to a pool and are
+ * reused for the ones coming into view. Event labels are positioned from the precomputed
+ * {@link TimelineLayout} blocks during layout, so width changes need no listeners.
+ */
+class TimelineView {
+
+    private static final double HOUR_HEIGHT = 60; // Each hour equals 60 minutes
+    private static final double HEADER_HEIGHT = 30;
+    private static final double TIME_COLUMN_WIDTH = 50;
+    private static final double MIN_DAY_WIDTH = 100;
+    private static final int BUFFER_HOURS = 2;
+    private static final int MAX_COLUMNS = 7;
+
+    private final ScrollPane scrollPane;
+    private final TimelineContent content = new TimelineContent();
+    private final Label[] dayHeaders = new Label[MAX_COLUMNS];
+    private final Map<Integer, HourRow> shownRows = new HashMap<>();
+    private final Deque<HourRow> rowPool = new ArrayDeque<>();
+    private final Map<TimelineLayout.Block, Label> shownBlocks = new IdentityHashMap<>();
+    private final Deque<Label> labelPool = new ArrayDeque<>();
+    private final Consumer<Event> openEvent;
+    private int columnCount = MAX_COLUMNS;
+    private List<TimelineLayout.Block> blocks = List.of();
+
+    TimelineView(Consumer<Event> openEvent) {
+        this.openEvent = openEvent;
+
+        for (int i = 0; i < MAX_COLUMNS; i++) {
+            Label dayLabel = new Label();
+            dayLabel.getStyleClass().add(Styles.TIMELINE_DAY_HEADER);
+            dayLabel.setAlignment(Pos.CENTER);
+            dayHeaders[i] = dayLabel;
+            content.getChildren().add(dayLabel);
+        }
+
+        scrollPane = new ScrollPane(content);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setPadding(new Insets(5, 5, 5, 5));
+
+        // Registered once for the lifetime of the view; scrolling or resizing only triggers a new layout pass
+        scrollPane.vvalueProperty().addListener(observable -> content.requestLayout());
+        scrollPane.viewportBoundsProperty().addListener(observable -> content.requestLayout());
+    }
+
+    ScrollPane getNode() {
+        return scrollPane;
+    }
+
+    /**
+     * Show columnCount days starting at firstDay, with the event blocks laid out for those days
+     */
+    void show(LocalDate firstDay, int columnCount, List<TimelineLayout.Block> blocks, Locale locale) {
+        this.columnCount = columnCount;
+        this.blocks = blocks;
+
+        for (int i = 0; i < MAX_COLUMNS; i++) {
+            LocalDate dayDate = firstDay.plusDays(i);
+            dayHeaders[i].setText(dayDate.getDayOfWeek().getDisplayName(TextStyle.SHORT, locale) + " " + dayDate.getDayOfMonth());
+            dayHeaders[i].setVisible(i < columnCount);
+        }
+
+        // The previous blocks are stale, their labels are rebound during the next layout pass
+        for (Label eventLabel : shownBlocks.values()) {
+            releaseEventLabel(eventLabel);
+        }
+        shownBlocks.clear();
+        shownRows.values().forEach(HourRow::requestLayout);
+        rowPool.forEach(HourRow::requestLayout);
+        content.requestLayout();
+    }
+
+    private void releaseEventLabel(Label eventLabel) {
+        eventLabel.setUserData(null);
+        eventLabel.setVisible(false);
+        labelPool.push(eventLabel);
+    }
+
+    private Label takeEventLabel() {
+        Label eventLabel = labelPool.poll();
+        if (eventLabel == null) {
+            eventLabel = new Label();
+            eventLabel.getStyleClass().add(Styles.EVENT_CHIP);
+            eventLabel.setAlignment(Pos.TOP_LEFT);
+            eventLabel.setPadding(new Insets(2));
+
+            // Open the event currently bound to the label for editing on double-click
+            Label label = eventLabel;
+            eventLabel.setOnMouseClicked(eventMouseEvent -> {
+                if (eventMouseEvent.getClickCount() == 2 && eventMouseEvent.getButton() == MouseButton.PRIMARY
+                        && label.getUserData() instanceof Event event) {
+                    openEvent.accept(event);
+                }
+            });
+            content.getChildren().add(eventLabel);
+        }
+        eventLabel.setVisible(true);
+        return eventLabel;
+    }
+
+    /**
+     * Scrolled content: the day headers, the materialised hour rows and the visible event labels
+     */
+    private class TimelineContent extends Pane {
+
+        @Override
+        protected double computeMinWidth(double height) {
+            return TIME_COLUMN_WIDTH + columnCount * MIN_DAY_WIDTH;
+        }
+
+        @Override
+        protected double computePrefWidth(double height) {
+            return computeMinWidth(height);
+        }
+
+        @Override
+        protected double computePrefHeight(double width) {
+            return HEADER_HEIGHT + 24 * HOUR_HEIGHT;
+        }
+
+        @Override
+        protected void layoutChildren() {
+            double dayWidth = (getWidth() - TIME_COLUMN_WIDTH) / columnCount;
+
+            for (int i = 0; i < columnCount; i++) {
+                dayHeaders[i].resizeRelocate(TIME_COLUMN_WIDTH + i * dayWidth, 0, dayWidth, HEADER_HEIGHT);
+            }
+
+            // Hours inside the viewport, widened by the buffer
+            double viewportHeight = scrollPane.getViewportBounds().getHeight();
+            double scrollTop = scrollPane.getVvalue() * Math.max(0, getHeight() - viewportHeight);
+            int firstHour = Math.max(0, (int) Math.floor((scrollTop - HEADER_HEIGHT) / HOUR_HEIGHT) - BUFFER_HOURS);
+            int lastHour = Math.min(23, (int) Math.ceil((scrollTop + viewportHeight - HEADER_HEIGHT) / HOUR_HEIGHT) + BUFFER_HOURS);
+
+            shownRows.entrySet().removeIf(entry -> {
+                if (entry.getKey() < firstHour || entry.getKey() > lastHour) {
+                    entry.getValue().setVisible(false);
+                    rowPool.push(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+            for (int hour = firstHour; hour <= lastHour; hour++) {
+                HourRow row = shownRows.get(hour);
+                if (row == null) {
+                    row = rowPool.poll();
+                    if (row == null) {
+                        row = new HourRow();
+                        getChildren().add(0, row); // Rows stay behind the event labels
+                    }
+                    row.bind(hour);
+                    shownRows.put(hour, row);
+                }
+                row.resizeRelocate(0, HEADER_HEIGHT + hour * HOUR_HEIGHT, getWidth(), HOUR_HEIGHT);
+            }
+
+            int firstMinute = firstHour * 60;
+            int lastMinute = (lastHour + 1) * 60;
+            for (TimelineLayout.Block block : blocks) {
+                boolean visible = block.endMinute() > firstMinute && block.startMinute() < lastMinute;
+                Label eventLabel = shownBlocks.get(block);
+                if (!visible) {
+                    if (eventLabel != null) {
+                        releaseEventLabel(shownBlocks.remove(block));
+                    }
+                    continue;
+                }
+                if (eventLabel == null) {
+                    eventLabel = takeEventLabel();
+                    eventLabel.setUserData(block.event());
+                    eventLabel.setText(block.event().getTitle());
+                    Styles.setCategory(eventLabel, block.event().getCategory());
+                    shownBlocks.put(block, eventLabel);
+                }
+
+                double laneWidth = dayWidth / block.laneCount();
+                double width = laneWidth - 4; // Subtract 4px for padding
+                double height = Math.max(block.duration() - 4, eventLabel.minHeight(width));
+                eventLabel.resizeRelocate(TIME_COLUMN_WIDTH + block.day() * dayWidth + block.lane() * laneWidth + 2,
+                        HEADER_HEIGHT + block.startMinute() * HOUR_HEIGHT / 60 + 2, width, height);
+            }
+        }
+    }
+
+    /**
+     * One hour of the timeline: the hour label and a bordered cell per day column
+     */
+    private class HourRow extends Region {
+
+        private final Label hourLabel = new Label();
+        private final Region[] cells = new Region[MAX_COLUMNS];
+
+        HourRow() {
+            hourLabel.getStyleClass().add(Styles.HOUR_LABEL);
+            hourLabel.setAlignment(Pos.TOP_CENTER);
+            getChildren().add(hourLabel);
+            for (int i = 0; i < MAX_COLUMNS; i++) {
+                cells[i] = new Region();
+                cells[i].getStyleClass().add(Styles.DAY_CELL);
+                getChildren().add(cells[i]);
+            }
+        }
+
+        void bind(int hour) {
+            hourLabel.setText(hour + ":00");
+            setVisible(true);
+        }
+
+        @Override
+        protected void layoutChildren() {
+            double dayWidth = (getWidth() - TIME_COLUMN_WIDTH) / columnCount;
+            hourLabel.resizeRelocate(0, 0, TIME_COLUMN_WIDTH, HOUR_HEIGHT);
+            for (int i = 0; i < MAX_COLUMNS; i++) {
+                cells[i].setVisible(i < columnCount);
+                cells[i].resizeRelocate(TIME_COLUMN_WIDTH + i * dayWidth, 0, dayWidth, HOUR_HEIGHT);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.controller;
+
+import com.example.index.DayCounts;
+import com.example.model.Category;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.function.Consumer;
+
+/**
+ * The year view: one square per day, a column per week, shaded by the number of events that day, either of
+ * all categories or of the one chosen above the map. The counts are read from {@link DayCounts}, so drawing
+ * a year does not depend on the number of events. Double-clicking a day opens it in the day view.
+ */
+class YearHeatmap {
+
+    private static final double LABEL_WIDTH = 40;
+    private static final double HEADER_HEIGHT = 20;
+    private static final double GAP = 2;
+    private static final double MIN_CELL_SIZE = 10;
+    private static final int COLUMNS = 54; // A leap year starting on a Sunday touches 54 weeks
+
+    private static final Color EMPTY_COLOR = Color.web("#eeeeee");
+    private static final Color ALL_CATEGORIES_COLOR = Color.web("#115C30");
+    private static final Color TEXT_COLOR = Color.web("#333333");
+    private static final Font LABEL_FONT = Font.font(11);
+
+    private final VBox box = new VBox(5);
+    private final ComboBox<String> categorySelector = new ComboBox<>();
+    private final Canvas canvas = new Canvas();
+    private final Tooltip tooltip = new Tooltip();
+    private final Consumer<LocalDate> openDay;
+    private DayCounts.Year counts;
+    private ResourceBundle resources;
+
+    YearHeatmap(Consumer<LocalDate> openDay) {
+        this.openDay = openDay;
+
+        Pane canvasPane = new Pane(canvas) {
+            @Override
+            protected double computeMinWidth(double height) {
+                return LABEL_WIDTH + COLUMNS * MIN_CELL_SIZE;
+            }
+
+            @Override
+            protected double computePrefWidth(double height) {
+                return computeMinWidth(height);
+            }
+
+            @Override
+            protected double computeMinHeight(double width) {
+                return HEADER_HEIGHT + 7 * MIN_CELL_SIZE;
+            }
+
+            @Override
+            protected double computePrefHeight(double width) {
+                return computeMinHeight(width);
+            }
+
+            @Override
+            protected void layoutChildren() {
+                if (canvas.getWidth() != getWidth() || canvas.getHeight() != getHeight()) {
+                    canvas.setWidth(getWidth());
+                    canvas.setHeight(getHeight());
+                    draw();
+                }
+            }
+        };
+        VBox.setVgrow(canvasPane, Priority.ALWAYS);
+        box.setPadding(new Insets(5, 5, 5, 5));
+        box.getChildren().addAll(categorySelector, canvasPane);
+
+        // Only the shading changes with the category, the counts of all categories are already read
+        categorySelector.setOnAction(event -> draw());
+
+        canvas.setOnMouseClicked(mouseEvent -> {
+            LocalDate date = dateAt(mouseEvent.getX(), mouseEvent.getY());
+            if (date != null && mouseEvent.getButton() == MouseButton.PRIMARY && mouseEvent.getClickCount() == 2) {
+                openDay.accept(date);
+            }
+        });
+        canvas.setOnMouseMoved(mouseEvent -> {
+            LocalDate date = dateAt(mouseEvent.getX(), mouseEvent.getY());
+            tooltip.setText(date == null ? null : date + ": " + counts.count(date, selectedCategory()));
+        });
+        Tooltip.install(canvas, tooltip);
+    }
+
+    Node getNode() {
+        return box;
+    }
+
+    /**
+     * Show the given year's counts, with the category names of resources
+     */
+    void show(DayCounts.Year counts, ResourceBundle resources) {
+        this.counts = counts;
+        if (this.resources != resources) {
+            this.resources = resources;
+            int selected = Math.max(0, categorySelector.getSelectionModel().getSelectedIndex());
+            List<String> names = new ArrayList<>();
+            names.add(resources.getString("filter.all"));
+            for (Category category : Category.values()) {
+                names.add(category.getTranslatedName(resources));
+            }
+            categorySelector.setItems(FXCollections.observableArrayList(names));
+            categorySelector.getSelectionModel().select(selected);
+        }
+        draw();
+    }
+
+    /**
+     * The chosen category, or null for all categories
+     */
+    private Category selectedCategory() {
+        int index = categorySelector.getSelectionModel().getSelectedIndex();
+        return index <= 0 ? null : Category.values()[index - 1];
+    }
+
+    private double cellSize() {
+        return Math.max(MIN_CELL_SIZE, Math.min((canvas.getWidth() - LABEL_WIDTH) / COLUMNS, (canvas.getHeight() - HEADER_HEIGHT) / 7));
+    }
+
+    /**
+     * Week column of date, counted from the week holding January 1st
+     */
+    private static int columnOf(LocalDate date) {
+        return (date.getDayOfYear() - 1 + date.withDayOfYear(1).getDayOfWeek().getValue() - 1) / 7;
+    }
+
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (counts == null || canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+            return;
+        }
+        double cell = cellSize();
+        LocalDate first = LocalDate.ofYearDay(counts.getYear(), 1);
+
+        gc.setFont(LABEL_FONT);
+        gc.setFill(TEXT_COLOR);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setTextAlign(TextAlignment.LEFT);
+        for (Month month : Month.values()) {
+            double x = LABEL_WIDTH + columnOf(first.withMonth(month.getValue())) * cell;
+            gc.fillText(month.getDisplayName(TextStyle.SHORT, resources.getLocale()), x, HEADER_HEIGHT / 2);
+        }
+        for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)) {
+            gc.fillText(day.getDisplayName(TextStyle.SHORT, resources.getLocale()), 0, HEADER_HEIGHT + (day.getValue() - 0.5) * cell);
+        }
+
+        Category category = selectedCategory();
+        Color color = category == null ? ALL_CATEGORIES_COLOR : Color.web(category.getColor());
+        int max = counts.max(category);
+        for (LocalDate date = first; date.getYear() == first.getYear(); date = date.plusDays(1)) {
+            int count = counts.count(date, category);
+            // Shaded linearly from a light tint for one event up to the full color for the busiest day
+            gc.setFill(count == 0 ? EMPTY_COLOR : color.deriveColor(0, 1, 1, 0.2 + 0.8 * count / max));
+            gc.fillRect(LABEL_WIDTH + columnOf(date) * cell, HEADER_HEIGHT + (date.getDayOfWeek().getValue() - 1) * cell,
+                    cell - GAP, cell - GAP);
+        }
+    }
+
+    /**
+     * The day whose square is at x, y, or null
+     */
+    private LocalDate dateAt(double x, double y) {
+        if (counts == null || x < LABEL_WIDTH || y < HEADER_HEIGHT) {
+            return null;
+        }
+        double cell = cellSize();
+        int column = (int) ((x - LABEL_WIDTH) / cell);
+        int row = (int) ((y - HEADER_HEIGHT) / cell);
+        if (row > 6 || column >= COLUMNS) {
+            return null;
+        }
+        LocalDate first = LocalDate.ofYearDay(counts.getYear(), 1);
+        LocalDate date = first.minusDays(first.getDayOfWeek().getValue() - 1).plusDays(column * 7L + row);
+        return date.getYear() == counts.getYear() ? date : null;
+    }
+}
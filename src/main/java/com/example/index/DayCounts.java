@@ -0,0 +1,165 @@
+package com.example.index;
+
+import com.example.model.Category;
+import com.example.model.Event;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Number of events per day and {@link Category}, kept up to date one event at a time, so an overview of a
+ * whole year is read from 366 counters per category instead of scanning the events. Like {@link EventIndex},
+ * events are tracked by identity together with the day and category they are counted under, and
+ * {@link #update(Event)} moves an edited event's count.
+ *
+ * <p>Recurring events are kept apart and their occurrences counted only when a year is asked for.
+ */
+public class DayCounts {
+
+    private static final Category[] CATEGORIES = Category.values();
+    /**
+     * Counters per day: one per category, one for events without a category and the day's total.
+     */
+    private static final int NO_CATEGORY = CATEGORIES.length;
+    private static final int TOTAL = NO_CATEGORY + 1;
+    private static final int STRIDE = TOTAL + 1;
+    private static final int DAYS_PER_YEAR = 366;
+
+    private final Map<Integer, int[]> countsByYear = new HashMap<>();
+    private final Map<Event, Counted> counted = new IdentityHashMap<>();
+    private final Set<Event> series = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private record Counted(LocalDate date, Category category) {
+    }
+
+    public DayCounts() {
+    }
+
+    public DayCounts(Collection<? extends Event> events) {
+        addAll(events);
+    }
+
+    public void add(Event event) {
+        if (event.getDateTime() == null || counted.containsKey(event)) {
+            return;
+        }
+        if (event.isRecurring()) {
+            series.add(event);
+            return;
+        }
+        Counted key = new Counted(event.getDateTime().toLocalDate(), event.getCategory());
+        change(key, 1);
+        counted.put(event, key);
+    }
+
+    public void addAll(Collection<? extends Event> events) {
+        for (Event event : events) {
+            add(event);
+        }
+    }
+
+    public void remove(Event event) {
+        if (series.remove(event)) {
+            return;
+        }
+        Counted key = counted.remove(event);
+        if (key != null) {
+            change(key, -1);
+        }
+    }
+
+    /**
+     * Moves the count of an event whose date or category was edited. Events that are not counted are ignored.
+     */
+    public void update(Event event) {
+        if (counted.containsKey(event) || series.contains(event)) {
+            remove(event);
+            add(event);
+        }
+    }
+
+    public void clear() {
+        countsByYear.clear();
+        counted.clear();
+        series.clear();
+    }
+
+    private void change(Counted key, int delta) {
+        int[] counts = countsByYear.computeIfAbsent(key.date().getYear(), year -> new int[DAYS_PER_YEAR * STRIDE]);
+        int day = (key.date().getDayOfYear() - 1) * STRIDE;
+        counts[day + slot(key.category())] += delta;
+        counts[day + TOTAL] += delta;
+    }
+
+    private static int slot(Category category) {
+        return category == null ? NO_CATEGORY : category.ordinal();
+    }
+
+    /**
+     * The counts of every day of year, including the occurrences of recurring events. Costs one copy of the
+     * year's counters plus the expansion of the recurring events.
+     */
+    public Year year(int year) {
+        int[] stored = countsByYear.get(year);
+        int[] counts = stored == null ? new int[DAYS_PER_YEAR * STRIDE] : stored.clone();
+        if (!series.isEmpty()) {
+            LocalDate first = LocalDate.ofYearDay(year, 1);
+            LocalDate last = first.withDayOfYear(first.lengthOfYear());
+            for (Event event : series) {
+                int categorySlot = slot(event.getCategory());
+                for (LocalDate date : event.getRecurrence().occurrencesBetween(event.getDateTime().toLocalDate(), first, last)) {
+                    int day = (date.getDayOfYear() - 1) * STRIDE;
+                    counts[day + categorySlot]++;
+                    counts[day + TOTAL]++;
+                }
+            }
+        }
+        return new Year(year, counts);
+    }
+
+    /**
+     * Counts of one year by day of the year, as they were when it was read.
+     */
+    public static final class Year {
+
+        private final int year;
+        private final int[] counts;
+
+        private Year(int year, int[] counts) {
+            this.year = year;
+            this.counts = counts;
+        }
+
+        public int getYear() {
+            return year;
+        }
+
+        /**
+         * Events on date, of category or of all categories if category is null.
+         */
+        public int count(LocalDate date, Category category) {
+            if (date.getYear() != year) {
+                return 0;
+            }
+            int day = (date.getDayOfYear() - 1) * STRIDE;
+            return counts[day + (category == null ? TOTAL : category.ordinal())];
+        }
+
+        /**
+         * The highest count of a single day, of category or of all categories if category is null.
+         */
+        public int max(Category category) {
+            int slot = category == null ? TOTAL : category.ordinal();
+            int max = 0;
+            for (int day = slot; day < counts.length; day += STRIDE) {
+                max = Math.max(max, counts[day]);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.index;
+
+import com.example.model.Event;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Events grouped by the date they start on, each day kept sorted by start time, so a calendar view can read
+ * the days it shows without scanning every event. Events are tracked by identity together with the date they
+ * are filed under; after an event is edited in place, {@link #update(Event)} moves it to its new position.
+ *
+ * <p>Recurring events are kept apart and expanded into occurrences only for the dates a query asks for.
+ */
+public class EventIndex {
+
+    private final NavigableMap<LocalDate, List<Event>> eventsByDate = new TreeMap<>();
+    private final Map<Event, LocalDate> indexedDates = new IdentityHashMap<>();
+    private final Set<Event> series = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public EventIndex() {
+    }
+
+    public EventIndex(Collection<? extends Event> events) {
+        addAll(events);
+    }
+
+    public void add(Event event) {
+        if (event.getDateTime() == null || indexedDates.containsKey(event)) {
+            return;
+        }
+        if (event.isRecurring()) {
+            series.add(event);
+            return;
+        }
+        LocalDate date = event.getDateTime().toLocalDate();
+        List<Event> day = eventsByDate.computeIfAbsent(date, key -> new ArrayList<>());
+        day.add(insertionPoint(day, event), event);
+        indexedDates.put(event, date);
+    }
+
+    public void addAll(Collection<? extends Event> events) {
+        for (Event event : events) {
+            add(event);
+        }
+    }
+
+    public void remove(Event event) {
+        if (series.remove(event)) {
+            return;
+        }
+        LocalDate date = indexedDates.remove(event);
+        if (date == null) {
+            return;
+        }
+        List<Event> day = eventsByDate.get(date);
+        for (int i = 0; i < day.size(); i++) {
+            if (day.get(i) == event) {
+                day.remove(i);
+                break;
+            }
+        }
+        if (day.isEmpty()) {
+            eventsByDate.remove(date);
+        }
+    }
+
+    /**
+     * Moves an event whose start was edited to its new date and position. Events that are not indexed are ignored.
+     */
+    public void update(Event event) {
+        if (indexedDates.containsKey(event) || series.contains(event)) {
+            remove(event);
+            add(event);
+        }
+    }
+
+    public void clear() {
+        eventsByDate.clear();
+        indexedDates.clear();
+        series.clear();
+    }
+
+    /**
+     * Number of stored events, counting a recurring event once.
+     */
+    public int size() {
+        return indexedDates.size() + series.size();
+    }
+
+    /**
+     * Events and occurrences starting on date, sorted by start time.
+     */
+    public List<Event> eventsOn(LocalDate date) {
+        List<Event> day = eventsByDate.get(date);
+        if (series.isEmpty()) {
+            return day == null ? List.of() : Collections.unmodifiableList(day);
+        }
+        List<Event> events = eventsBetween(date, date).get(date);
+        return events == null ? List.of() : events;
+    }
+
+    /**
+     * Days from from to to (inclusive) that have events or occurrences, in date order. Without recurring events
+     * this is a view of the index; otherwise the days are copied and the occurrences in range merged in.
+     */
+    public NavigableMap<LocalDate, List<Event>> eventsBetween(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, List<Event>> days = eventsByDate.subMap(from, true, to, true);
+        if (series.isEmpty()) {
+            return Collections.unmodifiableNavigableMap(days);
+        }
+        return merge(days, series, from, to);
+    }
+
+    private static NavigableMap<LocalDate, List<Event>> merge(NavigableMap<LocalDate, List<Event>> days,
+                                                              Collection<Event> series, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, List<Event>> merged = new TreeMap<>();
+        days.forEach((date, events) -> merged.put(date, new ArrayList<>(events)));
+        Set<LocalDate> changed = new HashSet<>();
+        for (Event recurring : series) {
+            for (Event occurrence : recurring.occurrencesBetween(from, to)) {
+                LocalDate date = occurrence.getDateTime().toLocalDate();
+                merged.computeIfAbsent(date, key -> new ArrayList<>()).add(occurrence);
+                changed.add(date);
+            }
+        }
+        for (LocalDate date : changed) {
+            merged.get(date).sort(Comparator.comparing(Event::getDateTime));
+        }
+        return Collections.unmodifiableNavigableMap(merged);
+    }
+
+    /**
+     * Position after the last event starting no later than event, so events with equal start times keep
+     * the order they were added in.
+     */
+    private static int insertionPoint(List<Event> day, Event event) {
+        int low = 0;
+        int high = day.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (day.get(middle).getDateTime().isAfter(event.getDateTime())) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,592 @@
+package com.example.index;
+
+import com.example.model.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over the searchable fields of notes or events: for each field, every lowercased word maps
+ * to the ids of the items containing it, and every category to the ids of the items filed under it.
+ *
+ * <p>Search keeps its substring semantics: a field containing the query has, for each word of the query, a
+ * word containing it, so {@link #candidates} accepts the items whose field has such words for every query
+ * word. That is a superset of the items whose field contains the whole query, so the caller still checks each
+ * candidate, but only the candidates. Because candidates are always checked, posting lists are append-only: a
+ * removed or edited item only gets its id retired, and its old entries are dropped when enough ids are retired
+ * to make rebuilding the lists worthwhile.
+ *
+ * <p>The words containing a query word of three or more characters are found through a trigram index over
+ * each field's vocabulary: the word lists of the query word's trigrams are intersected and the remaining words
+ * checked with contains, so "rap" finds "raport" without scanning the vocabulary. Shorter query words have no
+ * trigram and are only looked up when the query has no longer word; they scan the vocabulary, but while typing
+ * each query word usually extends the previous one, so only the words that matched the previous one, and words
+ * added since, are scanned again.
+ *
+ * <p>The postings also count how often an item uses a word, and each field keeps the number of words of every
+ * item, so {@link #rank} can order search results by their BM25 score.
+ *
+ * <p>The index is synchronized, so it can be queried from a background thread while the lists it follows
+ * are changed on the FX thread.
+ */
+public class SearchIndex<T> {
+
+    /**
+     * The fields the search filter can be restricted to. The description of a note is its content.
+     */
+    public enum Field {
+        TITLE, DESCRIPTION, CATEGORY, TAGS
+    }
+
+    private static final Field[] TEXT_FIELDS = {Field.TITLE, Field.DESCRIPTION, Field.TAGS};
+    private static final int MIN_RETIRED_BEFORE_COMPACTION = 1024;
+    private static final int TRIGRAM_LENGTH = 3;
+    /**
+     * The usual BM25 parameters: how quickly repeating a word stops raising the score, and how much the score
+     * is normalized by the length of the field
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<Field, Function<T, String>> texts = new EnumMap<>(Field.class);
+    private final Function<T, Category> category;
+    private final Map<Field, Vocabulary> vocabularies = new EnumMap<>(Field.class);
+    private final Map<Category, Postings> byCategory = new EnumMap<>(Category.class);
+    private final Map<T, Integer> ids = new IdentityHashMap<>();
+    private final List<T> itemsById = new ArrayList<>();
+    private int retired;
+
+    public SearchIndex(Function<T, String> title, Function<T, String> description, Function<T, Category> category,
+                       Function<T, String> tags) {
+        texts.put(Field.TITLE, title);
+        texts.put(Field.DESCRIPTION, description);
+        texts.put(Field.TAGS, tags);
+        this.category = category;
+        for (Field field : TEXT_FIELDS) {
+            vocabularies.put(field, new Vocabulary());
+        }
+    }
+
+    public synchronized void add(T item) {
+        if (ids.containsKey(item)) {
+            return;
+        }
+        int id = itemsById.size();
+        itemsById.add(item);
+        ids.put(item, id);
+        file(item, id);
+    }
+
+    public synchronized void addAll(Collection<? extends T> items) {
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    public synchronized void remove(T item) {
+        Integer id = ids.remove(item);
+        if (id == null) {
+            return;
+        }
+        itemsById.set(id, null);
+        for (Vocabulary vocabulary : vocabularies.values()) {
+            vocabulary.retire(id);
+        }
+        retired++;
+        if (retired >= MIN_RETIRED_BEFORE_COMPACTION && retired > ids.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Refiles an item whose fields were edited. Items that are not indexed are ignored.
+     */
+    public synchronized void update(T item) {
+        if (ids.containsKey(item)) {
+            remove(item);
+            add(item);
+        }
+    }
+
+    public synchronized void clear() {
+        vocabularies.values().forEach(Vocabulary::clear);
+        byCategory.clear();
+        ids.clear();
+        itemsById.clear();
+        retired = 0;
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    private void file(T item, int id) {
+        for (Field field : TEXT_FIELDS) {
+            Vocabulary vocabulary = vocabularies.get(field);
+            int length = forEachWord(texts.get(field).apply(item), word -> vocabulary.postingsOf(word).add(id));
+            vocabulary.setLength(id, length);
+        }
+        Category itemCategory = category.apply(item);
+        if (itemCategory != null) {
+            byCategory.computeIfAbsent(itemCategory, key -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Renumbers the remaining items densely and rebuilds the posting lists without the retired ids.
+     */
+    private void compact() {
+        List<T> remaining = new ArrayList<>(ids.size());
+        for (T item : itemsById) {
+            if (item != null) {
+                remaining.add(item);
+            }
+        }
+        clear();
+        addAll(remaining);
+    }
+
+    /**
+     * The items that may contain the lowercased query in one of fields, or null if the query has no word to
+     * look up (such as a blank query) and every item has to be checked.
+     *
+     * @param categoryName the lowercased name a category is searched by, which depends on the language
+     */
+    public synchronized Set<T> candidates(String query, Set<Field> fields, Function<Category, String> categoryName) {
+        String longest = "";
+        List<String> trigramWords = new ArrayList<>();
+        for (String word : words(query)) {
+            if (word.length() > longest.length()) {
+                longest = word;
+            }
+            if (word.length() >= TRIGRAM_LENGTH) {
+                trigramWords.add(word);
+            }
+        }
+        if (longest.isEmpty()) {
+            return null;
+        }
+        List<String> lookedUp = trigramWords.isEmpty() ? List.of(longest) : trigramWords;
+
+        BitSet candidates = new BitSet(itemsById.size());
+        for (Field field : fields) {
+            if (field == Field.CATEGORY) {
+                // Category names are matched as a whole, like the unindexed filter
+                byCategory.forEach((itemCategory, categoryPostings) -> {
+                    if (categoryName.apply(itemCategory).contains(query)) {
+                        categoryPostings.addTo(candidates);
+                    }
+                });
+                continue;
+            }
+            // The field has to hold every query word, so the items of the words are intersected
+            Vocabulary vocabulary = vocabularies.get(field);
+            BitSet fieldCandidates = null;
+            for (String word : lookedUp) {
+                BitSet wordItems = new BitSet(itemsById.size());
+                vocabulary.addContaining(word, wordItems);
+                if (fieldCandidates == null) {
+                    fieldCandidates = wordItems;
+                } else {
+                    fieldCandidates.and(wordItems);
+                }
+                if (fieldCandidates.isEmpty()) {
+                    break;
+                }
+            }
+            candidates.or(fieldCandidates);
+        }
+
+        Set<T> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            T item = itemsById.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Scores items for query with BM25, and returns them in order of their score. Each word of the query counts
+     * the occurrences of every word containing it, the way the search matches it, so a word being typed ranks
+     * like the words it completes to. The occurrences in the fields of boosts are weighted by their boost before
+     * the score saturates (BM25F), so a word in a title can count more than the same word in the content.
+     *
+     * @param items  the items to rank, usually the matches of the same query; items that are not indexed score 0
+     * @param boosts the text fields scored, with their weights
+     */
+    public synchronized Ranking<T> rank(String query, List<? extends T> items, Map<Field, Double> boosts) {
+        double[] scores = new double[itemsById.size()];
+        int live = ids.size();
+        for (String queryWord : words(query)) {
+            double[] weighted = new double[scores.length];
+            int withWord = 0;
+            for (Map.Entry<Field, Double> boost : boosts.entrySet()) {
+                Vocabulary vocabulary = vocabularies.get(boost.getKey());
+                if (vocabulary == null) {
+                    continue; // Categories are not text
+                }
+                double averageLength = vocabulary.averageLength(live);
+                for (int index : vocabulary.wordsContaining(queryWord)) {
+                    Postings wordPostings = vocabulary.postings.get(index);
+                    for (int i = 0; i < wordPostings.size(); i++) {
+                        int id = wordPostings.id(i);
+                        if (itemsById.get(id) == null) {
+                            continue; // Retired
+                        }
+                        if (weighted[id] == 0) {
+                            withWord++;
+                        }
+                        weighted[id] += boost.getValue() * wordPostings.frequency(i)
+                                / (1 - B + B * vocabulary.length(id) / averageLength);
+                    }
+                }
+            }
+            double idf = Math.log(1 + (live - withWord + 0.5) / (withWord + 0.5));
+            for (int id = 0; id < scores.length; id++) {
+                if (weighted[id] > 0) {
+                    scores[id] += idf * weighted[id] * (K1 + 1) / (weighted[id] + K1);
+                }
+            }
+        }
+
+        double[] itemScores = new double[items.size()];
+        for (int i = 0; i < itemScores.length; i++) {
+            Integer id = ids.get(items.get(i));
+            itemScores[i] = id == null ? 0 : scores[id];
+        }
+        return new Ranking<>(new ArrayList<>(items), itemScores);
+    }
+
+    /**
+     * The distinct words of text, lowercased the way the search lowercases its fields.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        forEachWord(text, word -> {
+            if (!words.contains(word)) {
+                words.add(word);
+            }
+        });
+        return words;
+    }
+
+    /**
+     * Splits the lowercased text into words and returns their number. Any character that is not a letter or a
+     * digit separates words, so every word of a query contained in text lies within one word of text.
+     */
+    private static int forEachWord(String text, Consumer<String> action) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        String lowerCase = text.toLowerCase();
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean wordCharacter = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (wordCharacter && start < 0) {
+                start = i;
+            } else if (!wordCharacter && start >= 0) {
+                action.accept(lowerCase.substring(start, i));
+                count++;
+                start = -1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Each trigram of word, packed into a long
+     */
+    private static long[] trigrams(String word) {
+        long[] trigrams = new long[Math.max(0, word.length() - TRIGRAM_LENGTH + 1)];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = (long) word.charAt(i) << 32 | (long) word.charAt(i + 1) << 16 | word.charAt(i + 2);
+        }
+        return trigrams;
+    }
+
+    /**
+     * The words of one field with their posting lists, the words having each trigram, the number of words of
+     * each item, and the words that matched the last short query word
+     */
+    private static final class Vocabulary {
+
+        private final Map<String, Postings> postingsByWord = new HashMap<>();
+        private final List<String> words = new ArrayList<>();
+        private final List<Postings> postings = new ArrayList<>();
+        private final Map<Long, Postings> wordsByTrigram = new HashMap<>();
+        private int[] lengths = new int[16];
+        private long totalLength;
+        private String lastQueryWord;
+        private int[] lastMatches;
+        private int lastScanned;
+
+        Postings postingsOf(String word) {
+            Postings wordPostings = postingsByWord.get(word);
+            if (wordPostings == null) {
+                wordPostings = new Postings();
+                postingsByWord.put(word, wordPostings);
+                int index = words.size();
+                words.add(word);
+                postings.add(wordPostings);
+                for (long trigram : trigrams(word)) {
+                    wordsByTrigram.computeIfAbsent(trigram, key -> new Postings()).add(index);
+                }
+            }
+            return wordPostings;
+        }
+
+        void setLength(int id, int length) {
+            if (id >= lengths.length) {
+                lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+            }
+            lengths[id] = length;
+            totalLength += length;
+        }
+
+        int length(int id) {
+            return lengths[id];
+        }
+
+        void retire(int id) {
+            totalLength -= lengths[id];
+        }
+
+        double averageLength(int items) {
+            return items == 0 ? 0 : (double) totalLength / items;
+        }
+
+        /**
+         * Adds the items having a word that contains queryWord to candidates
+         */
+        void addContaining(String queryWord, BitSet candidates) {
+            for (int index : wordsContaining(queryWord)) {
+                postings.get(index).addTo(candidates);
+            }
+        }
+
+        /**
+         * The indexes of the words containing queryWord
+         */
+        int[] wordsContaining(String queryWord) {
+            return queryWord.length() >= TRIGRAM_LENGTH ? wordsContainingByTrigrams(queryWord) : wordsContainingByScan(queryWord);
+        }
+
+        private int[] wordsContainingByTrigrams(String queryWord) {
+            List<Postings> trigramWords = new ArrayList<>();
+            for (long trigram : trigrams(queryWord)) {
+                Postings withTrigram = wordsByTrigram.get(trigram);
+                if (withTrigram == null) {
+                    return new int[0];
+                }
+                trigramWords.add(withTrigram);
+            }
+            // Starting from the rarest trigram keeps the intermediate result small
+            trigramWords.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            int[] matches = trigramWords.get(0).toArray();
+            for (int i = 1; i < trigramWords.size() && matches.length > 0; i++) {
+                matches = trigramWords.get(i).retain(matches);
+            }
+            // Having every trigram does not mean having them in order
+            int count = 0;
+            for (int index : matches) {
+                if (words.get(index).contains(queryWord)) {
+                    matches[count++] = index;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        private int[] wordsContainingByScan(String queryWord) {
+            int[] matches = new int[16];
+            int count = 0;
+            boolean refines = lastQueryWord != null && queryWord.contains(lastQueryWord);
+            if (refines) {
+                for (int index : lastMatches) {
+                    if (words.get(index).contains(queryWord)) {
+                        matches = append(matches, count++, index);
+                    }
+                }
+            }
+            for (int index = refines ? lastScanned : 0; index < words.size(); index++) {
+                if (words.get(index).contains(queryWord)) {
+                    matches = append(matches, count++, index);
+                }
+            }
+            lastQueryWord = queryWord;
+            lastMatches = Arrays.copyOf(matches, count);
+            lastScanned = words.size();
+            return lastMatches;
+        }
+
+        private static int[] append(int[] array, int size, int value) {
+            int[] result = size == array.length ? Arrays.copyOf(array, size * 2) : array;
+            result[size] = value;
+            return result;
+        }
+
+        void clear() {
+            postingsByWord.clear();
+            words.clear();
+            postings.clear();
+            wordsByTrigram.clear();
+            lengths = new int[16];
+            totalLength = 0;
+            lastQueryWord = null;
+            lastMatches = null;
+            lastScanned = 0;
+        }
+    }
+
+    /**
+     * Ids in the order they were filed, each at most once in a row, so an item repeating a word is listed once
+     * with the number of times it was filed. Word ids are filed in increasing order, so the word lists of
+     * trigrams are sorted.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[2];
+        private int[] frequencies; // Null while every id was filed once
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                if (frequencies == null) {
+                    frequencies = new int[ids.length];
+                    Arrays.fill(frequencies, 0, size, 1);
+                }
+                frequencies[size - 1]++;
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                if (frequencies != null) {
+                    frequencies = Arrays.copyOf(frequencies, size * 2);
+                }
+            }
+            if (frequencies != null) {
+                frequencies[size] = 1;
+            }
+            ids[size++] = id;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int id(int index) {
+            return ids[index];
+        }
+
+        int frequency(int index) {
+            return frequencies == null ? 1 : frequencies[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        /**
+         * The ids of sorted that are also in these sorted postings
+         */
+        int[] retain(int[] sorted) {
+            int[] result = new int[Math.min(size, sorted.length)];
+            int count = 0;
+            for (int i = 0, j = 0; i < size && j < sorted.length; ) {
+                if (ids[i] < sorted[j]) {
+                    i++;
+                } else if (ids[i] > sorted[j]) {
+                    j++;
+                } else {
+                    result[count++] = ids[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Ranked items, handed out a page at a time, best first. A page of k is selected with a heap bounded by k,
+     * so each page costs one pass over the items instead of sorting all of them. Equal scores keep the order
+     * the items were given in.
+     */
+    public static final class Ranking<T> {
+
+        private final List<T> items;
+        private final double[] scores;
+        private int last = -1; // The item handed out last, or -1
+
+        private Ranking(List<T> items, double[] scores) {
+            this.items = items;
+            this.scores = scores;
+        }
+
+        /**
+         * Starts handing out from the best item again, such as after the filter changed.
+         */
+        public void rewind() {
+            last = -1;
+        }
+
+        /**
+         * The next best count items accepted by filter, best first, or an empty list once all were handed out.
+         */
+        public List<T> next(int count, Predicate<? super T> filter) {
+            // The root of the heap is the worst item kept, and is replaced by any better one
+            PriorityQueue<Integer> heap = new PriorityQueue<>(count, (a, b) -> order(b, a));
+            for (int i = 0; i < items.size(); i++) {
+                if (last >= 0 && order(i, last) <= 0 || !filter.test(items.get(i))) {
+                    continue;
+                }
+                if (heap.size() < count) {
+                    heap.add(i);
+                } else if (order(i, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(i);
+                }
+            }
+            List<T> page = new ArrayList<>(heap.size());
+            int[] indexes = new int[heap.size()];
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                indexes[i] = heap.poll();
+            }
+            for (int index : indexes) {
+                page.add(items.get(index));
+            }
+            if (indexes.length > 0) {
+                last = indexes[indexes.length - 1];
+            }
+            return page;
+        }
+
+        /**
+         * Negative if the item at a ranks before the one at b
+         */
+        private int order(int a, int b) {
+            return scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(a, b);
+        }
+    }
+}
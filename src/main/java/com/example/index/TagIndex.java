@@ -0,0 +1,199 @@
+package com.example.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Dictionary of the tags used by notes or events. Every distinct tag gets a dense int id, with a bit set of
+ * the items carrying it and a count, so a query for several tags is an intersection of bit sets and a tag
+ * cloud needs no counting. Items get dense ids too, reused after removal, and are tracked by identity
+ * together with the tags they are filed under, so {@link #update(Object)} refiles an item after its tags
+ * were set. The index is synchronized, so it can be queried from a background thread.
+ */
+public class TagIndex<T> {
+
+    private final Function<T, List<String>> tagsOf;
+    private final Map<String, Integer> tagIds = new HashMap<>();
+    private final List<String> tags = new ArrayList<>();
+    private final List<String> lowerCaseTags = new ArrayList<>();
+    private final List<BitSet> itemsByTag = new ArrayList<>();
+    private int[] counts = new int[16];
+    private final Map<T, Filed> filed = new IdentityHashMap<>();
+    private final List<T> itemsById = new ArrayList<>();
+    private final BitSet freeItemIds = new BitSet();
+
+    /**
+     * Item id and the ids of the tags the item is filed under
+     */
+    private record Filed(int id, int[] tagIds) {
+    }
+
+    public TagIndex(Function<T, List<String>> tagsOf) {
+        this.tagsOf = tagsOf;
+    }
+
+    public synchronized void add(T item) {
+        if (filed.containsKey(item)) {
+            return;
+        }
+        int id = freeItemIds.nextSetBit(0);
+        if (id >= 0) {
+            freeItemIds.clear(id);
+            itemsById.set(id, item);
+        } else {
+            id = itemsById.size();
+            itemsById.add(item);
+        }
+
+        List<String> itemTags = tagsOf.apply(item);
+        int[] itemTagIds = new int[itemTags.size()];
+        for (int i = 0; i < itemTagIds.length; i++) {
+            itemTagIds[i] = tagId(itemTags.get(i));
+            itemsByTag.get(itemTagIds[i]).set(id);
+            counts[itemTagIds[i]]++;
+        }
+        filed.put(item, new Filed(id, itemTagIds));
+    }
+
+    public synchronized void addAll(Collection<? extends T> items) {
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    public synchronized void remove(T item) {
+        Filed removed = filed.remove(item);
+        if (removed == null) {
+            return;
+        }
+        for (int tagId : removed.tagIds()) {
+            itemsByTag.get(tagId).clear(removed.id());
+            counts[tagId]--;
+        }
+        itemsById.set(removed.id(), null);
+        freeItemIds.set(removed.id());
+    }
+
+    /**
+     * Refiles an item whose tags were set. Items that are not indexed are ignored.
+     */
+    public synchronized void update(T item) {
+        if (filed.containsKey(item)) {
+            remove(item);
+            add(item);
+        }
+    }
+
+    public synchronized void clear() {
+        tagIds.clear();
+        tags.clear();
+        lowerCaseTags.clear();
+        itemsByTag.clear();
+        counts = new int[16];
+        filed.clear();
+        itemsById.clear();
+        freeItemIds.clear();
+    }
+
+    private int tagId(String tag) {
+        Integer id = tagIds.get(tag);
+        if (id != null) {
+            return id;
+        }
+        id = tags.size();
+        tagIds.put(tag, id);
+        tags.add(tag);
+        lowerCaseTags.add(tag.toLowerCase());
+        itemsByTag.add(new BitSet());
+        if (id == counts.length) {
+            counts = Arrays.copyOf(counts, id * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Number of items carrying tag.
+     */
+    public synchronized int count(String tag) {
+        Integer id = tagIds.get(tag);
+        return id == null ? 0 : counts[id];
+    }
+
+    /**
+     * Every tag in use with the number of items carrying it, most used first.
+     */
+    public synchronized Map<String, Integer> counts() {
+        List<Integer> used = new ArrayList<>();
+        for (int id = 0; id < tags.size(); id++) {
+            if (counts[id] > 0) {
+                used.add(id);
+            }
+        }
+        used.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int id : used) {
+            result.put(tags.get(id), counts[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Items carrying every one of tags.
+     */
+    public synchronized Set<T> itemsTaggedWithAll(Collection<String> tags) {
+        List<BitSet> sets = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            Integer id = tagIds.get(tag);
+            if (id == null) {
+                return Set.of();
+            }
+            sets.add(itemsByTag.get(id));
+        }
+        return intersect(sets);
+    }
+
+    /**
+     * Items that, for each of the lowercased terms, carry a tag containing it. Each term is looked up in the
+     * dictionary, so the cost depends on the number of distinct tags, not items.
+     */
+    public synchronized Set<T> itemsMatchingAll(Collection<String> terms) {
+        List<BitSet> sets = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            BitSet matching = new BitSet();
+            for (int id = 0; id < lowerCaseTags.size(); id++) {
+                if (counts[id] > 0 && lowerCaseTags.get(id).contains(term)) {
+                    matching.or(itemsByTag.get(id));
+                }
+            }
+            sets.add(matching);
+        }
+        return intersect(sets);
+    }
+
+    private Set<T> intersect(List<BitSet> sets) {
+        if (sets.isEmpty()) {
+            return Set.of();
+        }
+        // Starting from the rarest set keeps the intermediate result small
+        sets.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        BitSet result = (BitSet) sets.get(0).clone();
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.and(sets.get(i));
+        }
+        Set<T> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+            items.add(itemsById.get(id));
+        }
+        return items;
+    }
+}
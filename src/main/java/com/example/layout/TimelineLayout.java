@@ -0,0 +1,131 @@
+package com.example.layout;
+
+import com.example.index.EventIndex;
+import com.example.model.Event;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+
+/**
+ * Positions the events of the week and day views. Each day is swept in start order: overlapping events are
+ * put side by side in lanes, reusing the lowest lane that has become free, and every event of a cluster of
+ * transitively overlapping events shares the cluster's lane count, so all of them get the same width.
+ * Runs in O(n log n) per day and does not depend on JavaFX.
+ */
+public final class TimelineLayout {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Events shorter than this (or ending before they start) are laid out with this length, so they stay visible.
+     */
+    public static final int MIN_DURATION_MINUTES = 15;
+
+    /**
+     * Placement of one event: the day column, the minutes since midnight it covers and its lane within its
+     * cluster. An event continuing past midnight is cut off at the end of its start day.
+     */
+    public record Block(Event event, int day, int startMinute, int endMinute, int lane, int laneCount) {
+
+        public int duration() {
+            return endMinute - startMinute;
+        }
+    }
+
+    private TimelineLayout() {
+    }
+
+    /**
+     * Lays out the days from first to first + days - 1, taking each day's events from index.
+     */
+    public static List<Block> layoutDays(LocalDate first, int days, EventIndex index) {
+        return layoutDays(first, index.eventsBetween(first, first.plusDays(days - 1)));
+    }
+
+    /**
+     * Lays out the given days, each column placed by its distance from first.
+     */
+    public static List<Block> layoutDays(LocalDate first, NavigableMap<LocalDate, List<Event>> eventsByDate) {
+        List<Block> blocks = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Event>> entry : eventsByDate.entrySet()) {
+            blocks.addAll(layoutDay((int) ChronoUnit.DAYS.between(first, entry.getKey()), entry.getValue()));
+        }
+        return blocks;
+    }
+
+    /**
+     * Lays out the events of one day column. events must all start on the same date and be sorted by start time.
+     */
+    public static List<Block> layoutDay(int day, List<Event> events) {
+        int count = events.size();
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int[] lanes = new int[count];
+        int[] laneCounts = new int[count];
+
+        // Lanes in use, ordered by the minute they become free again, as {end, lane}
+        PriorityQueue<int[]> busyLanes = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        PriorityQueue<Integer> freeLanes = new PriorityQueue<>();
+        int clusterStart = 0;
+        int clusterLanes = 0;
+
+        for (int i = 0; i < count; i++) {
+            Event event = events.get(i);
+            starts[i] = minuteOfDay(event.getDateTime());
+            ends[i] = endMinute(event, starts[i]);
+
+            while (!busyLanes.isEmpty() && busyLanes.peek()[0] <= starts[i]) {
+                freeLanes.add(busyLanes.poll()[1]);
+            }
+            if (busyLanes.isEmpty()) {
+                // Nothing still running overlaps this event, so the previous cluster is complete
+                finishCluster(laneCounts, clusterStart, i, clusterLanes);
+                clusterStart = i;
+                clusterLanes = 0;
+                freeLanes.clear();
+            }
+
+            Integer lane = freeLanes.poll();
+            lanes[i] = lane != null ? lane : clusterLanes++;
+            busyLanes.add(new int[]{ends[i], lanes[i]});
+        }
+        finishCluster(laneCounts, clusterStart, count, clusterLanes);
+
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(new Block(events.get(i), day, starts[i], ends[i], lanes[i], laneCounts[i]));
+        }
+        return blocks;
+    }
+
+    private static void finishCluster(int[] laneCounts, int from, int to, int lanes) {
+        for (int i = from; i < to; i++) {
+            laneCounts[i] = lanes;
+        }
+    }
+
+    private static int minuteOfDay(LocalDateTime dateTime) {
+        return dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    private static int endMinute(Event event, int startMinute) {
+        LocalDateTime start = event.getDateTime();
+        LocalDateTime end = event.getEndDateTime();
+        int endMinute;
+        if (end == null || !end.isAfter(start)) {
+            endMinute = startMinute;
+        } else if (end.toLocalDate().isAfter(start.toLocalDate())) {
+            endMinute = MINUTES_PER_DAY;
+        } else {
+            endMinute = startMinute + (int) Duration.between(start, end).toMinutes();
+        }
+        return Math.min(MINUTES_PER_DAY, Math.max(endMinute, startMinute + MIN_DURATION_MINUTES));
+    }
+}
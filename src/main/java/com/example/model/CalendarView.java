@@ -3,6 +3,7 @@ package com.example.model;
 import java.util.ResourceBundle;
 
 public enum CalendarView {
+    YEAR("calendar.year"),
     MONTH("calendar.month"),
     WEEK("calendar.week"),
     DAY("calendar.day");
@@ -1,5 +1,7 @@
 package com.example.model;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -8,6 +10,7 @@ import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Event {
@@ -17,6 +20,10 @@ public class Event {
     private String description;
     private List<String> tags;
     private Category category;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Recurrence recurrence;
+    @JsonIgnore
+    private Event series;
 
     public Event() {
         this.tags = new ArrayList<>();
@@ -77,6 +84,63 @@ public class Event {
         return tags;
     }
 
+    /**
+     * Returns an independent copy, so the original can be edited while the copy is being saved.
+     */
+    public Event copy() {
+        Event copy = new Event();
+        copy.title = title;
+        copy.dateTime = dateTime;
+        copy.endDateTime = endDateTime;
+        copy.description = description;
+        copy.category = category;
+        copy.tags = new ArrayList<>(tags);
+        copy.recurrence = recurrence == null ? null : recurrence.copy();
+        return copy;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(Recurrence recurrence) {
+        this.recurrence = recurrence;
+    }
+
+    @JsonIgnore
+    public boolean isRecurring() {
+        return recurrence != null;
+    }
+
+    /**
+     * The recurring event this event is an occurrence of, or null for stored events.
+     */
+    @JsonIgnore
+    public Event getSeries() {
+        return series;
+    }
+
+    /**
+     * Occurrences of this recurring event from from to to (inclusive). They are generated on every call and
+     * are not stored; each points back to this event through {@link #getSeries()}.
+     */
+    public List<Event> occurrencesBetween(LocalDate from, LocalDate to) {
+        List<Event> occurrences = new ArrayList<>();
+        Duration duration = endDateTime == null ? Duration.ZERO : Duration.between(dateTime, endDateTime);
+        for (LocalDate date : recurrence.occurrencesBetween(dateTime.toLocalDate(), from, to)) {
+            Event occurrence = new Event();
+            occurrence.title = title;
+            occurrence.dateTime = date.atTime(dateTime.toLocalTime());
+            occurrence.endDateTime = endDateTime == null ? null : occurrence.dateTime.plus(duration);
+            occurrence.description = description;
+            occurrence.tags = tags;
+            occurrence.category = category;
+            occurrence.series = this;
+            occurrences.add(occurrence);
+        }
+        return occurrences;
+    }
+
     @JsonIgnore
     public String getTagsAsString() {
         return String.join(", ", tags);
@@ -33,6 +33,10 @@ public class Note {
         return title;
     }
 
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
     public String getContent() {
         return content;
     }
@@ -54,6 +58,18 @@ public class Note {
         return tags;
     }
 
+    /**
+     * Returns an independent copy, so the original can be edited while the copy is being saved.
+     */
+    public Note copy() {
+        Note copy = new Note();
+        copy.title = title;
+        copy.content = content;
+        copy.category = category;
+        copy.tags = new ArrayList<>(tags);
+        return copy;
+    }
+
     @JsonIgnore
     public String getTagsAsString() {
         return String.join(", ", tags);
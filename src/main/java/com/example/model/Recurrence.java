@@ -0,0 +1,176 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Repeat rule of a recurring event. The rule is stored once with its event; occurrences are computed only for
+ * the dates asked for, jumping straight to the first one in range.
+ *
+ * <p>Weekly rules repeat on the given days of the week, or on the weekday of the first occurrence if none are
+ * given. Monthly rules repeat on the day of month of the first occurrence, moved to the last day of shorter
+ * months. The series ends after the until date or after count occurrences, whichever comes first; skipped dates
+ * (exceptions) still count towards count.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Recurrence {
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+
+    private Frequency frequency;
+    private int interval = 1;
+    private Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+    private LocalDate until;
+    private Integer count;
+    private Set<LocalDate> exceptions = new TreeSet<>();
+
+    public Recurrence() {
+    }
+
+    public Recurrence(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = Math.max(1, interval);
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(daysOfWeek);
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public void setUntil(LocalDate until) {
+        this.until = until;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Set<LocalDate> getExceptions() {
+        return exceptions;
+    }
+
+    public void setExceptions(Set<LocalDate> exceptions) {
+        this.exceptions = new TreeSet<>(exceptions);
+    }
+
+    /**
+     * Skips the occurrence on date.
+     */
+    public void addException(LocalDate date) {
+        exceptions.add(date);
+    }
+
+    public Recurrence copy() {
+        Recurrence copy = new Recurrence(frequency);
+        copy.interval = interval;
+        copy.setDaysOfWeek(daysOfWeek);
+        copy.until = until;
+        copy.count = count;
+        copy.exceptions = new TreeSet<>(exceptions);
+        return copy;
+    }
+
+    /**
+     * Dates from from to to (inclusive) on which a series starting on first occurs, in order. The work done is
+     * proportional to the number of occurrences in range, not to how long the series has been running.
+     */
+    public List<LocalDate> occurrencesBetween(LocalDate first, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate last = until != null && until.isBefore(to) ? until : to;
+        if (last.isBefore(first) || last.isBefore(from)) {
+            return dates;
+        }
+        switch (frequency) {
+            case DAILY -> {
+                long index = Math.max(0, ceilDiv(ChronoUnit.DAYS.between(first, from), interval));
+                for (LocalDate date = first.plusDays(index * interval); !date.isAfter(last) && withinCount(index);
+                     date = first.plusDays(++index * interval)) {
+                    addUnlessSkipped(dates, date);
+                }
+            }
+            case MONTHLY -> {
+                long index = Math.max(0, ChronoUnit.MONTHS.between(first.withDayOfMonth(1), from.withDayOfMonth(1)) / interval - 1);
+                for (LocalDate date = first.plusMonths(index * interval); !date.isAfter(last) && withinCount(index);
+                     date = first.plusMonths(++index * interval)) {
+                    if (!date.isBefore(from)) {
+                        addUnlessSkipped(dates, date);
+                    }
+                }
+            }
+            case WEEKLY -> {
+                List<DayOfWeek> days = new ArrayList<>(daysOfWeek.isEmpty() ? EnumSet.of(first.getDayOfWeek()) : daysOfWeek);
+                LocalDate firstWeek = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                // Days of the first week before the first occurrence do not count as occurrences
+                int skippedInFirstWeek = (int) days.stream().filter(day -> firstWeek.with(day).isBefore(first)).count();
+                long week = Math.max(0, ChronoUnit.WEEKS.between(firstWeek, from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))) / interval);
+                for (LocalDate weekStart = firstWeek.plusWeeks(week * interval); !weekStart.isAfter(last);
+                     weekStart = firstWeek.plusWeeks(++week * interval)) {
+                    for (int position = 0; position < days.size(); position++) {
+                        LocalDate date = weekStart.with(days.get(position));
+                        if (date.isBefore(first)) {
+                            continue;
+                        }
+                        if (!withinCount(week * days.size() + position - skippedInFirstWeek) || date.isAfter(last)) {
+                            return dates;
+                        }
+                        if (!date.isBefore(from)) {
+                            addUnlessSkipped(dates, date);
+                        }
+                    }
+                }
+            }
+        }
+        return dates;
+    }
+
+    private boolean withinCount(long index) {
+        return count == null || index < count;
+    }
+
+    private void addUnlessSkipped(List<LocalDate> dates, LocalDate date) {
+        if (!exceptions.contains(date)) {
+            dates.add(date);
+        }
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Event;
+import com.example.model.Note;
+import com.example.model.Recurrence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary snapshot of notes or events.
+ *
+ * <p>Layout: magic, version and kind, followed by a string table holding every distinct title and tag
+ * once, then the records. Records refer to titles and tags by their index in the table, store the category
+ * as its ordinal and date-times as minutes since the epoch. Note content and event descriptions are rarely
+ * shared and are stored inline. Snapshots are read through a memory-mapped buffer.
+ *
+ * <p>Version 2 appends the recurrence rule to event records; version 1 snapshots are still read.
+ */
+public abstract class BinarySnapshot<T> {
+
+    private static final int MAGIC = 0x4E50534E; // "NPSN"
+    private static final byte VERSION = 2;
+    private static final byte FIRST_READABLE_VERSION = 1;
+    private static final int NULL_REFERENCE = -1;
+    private static final int NULL_MINUTES = Integer.MIN_VALUE;
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Recurrence.Frequency[] FREQUENCIES = Recurrence.Frequency.values();
+
+    public static final BinarySnapshot<Note> NOTES = new BinarySnapshot<>((byte) 1) {
+        @Override
+        void collectStrings(Note note, StringTable strings) {
+            strings.add(note.getTitle());
+            note.getTags().forEach(strings::add);
+        }
+
+        @Override
+        void writeRecord(Note note, StringTable strings, DataOutputStream out) throws IOException {
+            out.writeInt(strings.indexOf(note.getTitle()));
+            writeInlineString(note.getContent(), out);
+            writeTags(note.getTags(), strings, out);
+            writeCategory(note.getCategory(), out);
+        }
+
+        @Override
+        Note readRecord(String[] strings, MappedByteBuffer in, byte version) {
+            Note note = new Note();
+            note.setTitle(readReference(strings, in));
+            note.setContent(readInlineString(in));
+            note.setTags(readTags(strings, in));
+            note.setCategory(readCategory(in));
+            return note;
+        }
+    };
+
+    public static final BinarySnapshot<Event> EVENTS = new BinarySnapshot<>((byte) 2) {
+        @Override
+        void collectStrings(Event event, StringTable strings) {
+            strings.add(event.getTitle());
+            event.getTags().forEach(strings::add);
+        }
+
+        @Override
+        void writeRecord(Event event, StringTable strings, DataOutputStream out) throws IOException {
+            out.writeInt(strings.indexOf(event.getTitle()));
+            out.writeInt(toEpochMinutes(event.getDateTime()));
+            out.writeInt(toEpochMinutes(event.getEndDateTime()));
+            writeInlineString(event.getDescription(), out);
+            writeTags(event.getTags(), strings, out);
+            writeCategory(event.getCategory(), out);
+            writeRecurrence(event.getRecurrence(), out);
+        }
+
+        @Override
+        Event readRecord(String[] strings, MappedByteBuffer in, byte version) {
+            Event event = new Event();
+            event.setTitle(readReference(strings, in));
+            event.setDateTime(fromEpochMinutes(in.getInt()));
+            event.setEndDateTime(fromEpochMinutes(in.getInt()));
+            event.setDescription(readInlineString(in));
+            event.setTags(readTags(strings, in));
+            event.setCategory(readCategory(in));
+            if (version >= 2) {
+                event.setRecurrence(readRecurrence(in));
+            }
+            return event;
+        }
+    };
+
+    private final byte kind;
+
+    private BinarySnapshot(byte kind) {
+        this.kind = kind;
+    }
+
+    abstract void collectStrings(T item, StringTable strings);
+
+    abstract void writeRecord(T item, StringTable strings, DataOutputStream out) throws IOException;
+
+    abstract T readRecord(String[] strings, MappedByteBuffer in, byte version);
+
+    /**
+     * Writes items to out. The stream is flushed but not closed.
+     */
+    public void write(List<T> items, OutputStream out) throws IOException {
+        StringTable strings = new StringTable();
+        for (T item : items) {
+            collectStrings(item, strings);
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(kind);
+        data.writeInt(strings.values.size());
+        for (String value : strings.values.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+        data.writeInt(items.size());
+        for (T item : items) {
+            writeRecord(item, strings, data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Maps the snapshot at path and hands the decoded records to the consumer in batches of at most batchSize.
+     */
+    public void read(Path path, int batchSize, Consumer<List<T>> batchConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = in.getInt();
+            byte version = in.get();
+            if (magic != MAGIC || version < FIRST_READABLE_VERSION || version > VERSION || in.get() != kind) {
+                throw new IOException(path + " is not a supported snapshot file.");
+            }
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(in, in.getInt());
+            }
+
+            int count = in.getInt();
+            List<T> batch = new ArrayList<>(Math.min(batchSize, count));
+            for (int i = 0; i < count; i++) {
+                batch.add(readRecord(strings, in, version));
+                if (batch.size() >= batchSize) {
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>(Math.min(batchSize, count - i - 1));
+                }
+            }
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException(path + " is truncated or corrupt.", e);
+        }
+    }
+
+    static void writeInlineString(String value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_REFERENCE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readInlineString(MappedByteBuffer in) {
+        int length = in.getInt();
+        return length == NULL_REFERENCE ? null : readString(in, length);
+    }
+
+    private static String readString(MappedByteBuffer in, int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String readReference(String[] strings, MappedByteBuffer in) {
+        int index = in.getInt();
+        return index == NULL_REFERENCE ? null : strings[index];
+    }
+
+    static void writeTags(List<String> tags, StringTable strings, DataOutputStream out) throws IOException {
+        out.writeInt(tags.size());
+        for (String tag : tags) {
+            out.writeInt(strings.indexOf(tag));
+        }
+    }
+
+    static List<String> readTags(String[] strings, MappedByteBuffer in) {
+        int count = in.getInt();
+        List<String> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(readReference(strings, in));
+        }
+        return tags;
+    }
+
+    static void writeCategory(Category category, DataOutputStream out) throws IOException {
+        out.writeByte(category == null ? NULL_REFERENCE : category.ordinal());
+    }
+
+    static Category readCategory(MappedByteBuffer in) {
+        byte ordinal = in.get();
+        return ordinal == NULL_REFERENCE ? null : CATEGORIES[ordinal];
+    }
+
+    /**
+     * Writes a presence flag, then frequency, interval, days of the week as a bit mask, until as an epoch day,
+     * count (-1 if unset) and the exceptions as epoch days.
+     */
+    static void writeRecurrence(Recurrence recurrence, DataOutputStream out) throws IOException {
+        out.writeBoolean(recurrence != null);
+        if (recurrence == null) {
+            return;
+        }
+        out.writeByte(recurrence.getFrequency().ordinal());
+        out.writeInt(recurrence.getInterval());
+        int days = 0;
+        for (DayOfWeek day : recurrence.getDaysOfWeek()) {
+            days |= 1 << day.ordinal();
+        }
+        out.writeByte(days);
+        out.writeInt(recurrence.getUntil() == null ? NULL_MINUTES : Math.toIntExact(recurrence.getUntil().toEpochDay()));
+        out.writeInt(recurrence.getCount() == null ? NULL_REFERENCE : recurrence.getCount());
+        out.writeInt(recurrence.getExceptions().size());
+        for (LocalDate exception : recurrence.getExceptions()) {
+            out.writeInt(Math.toIntExact(exception.toEpochDay()));
+        }
+    }
+
+    static Recurrence readRecurrence(MappedByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        Recurrence recurrence = new Recurrence(FREQUENCIES[in.get()]);
+        recurrence.setInterval(in.getInt());
+        int days = in.get();
+        Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((days & 1 << day.ordinal()) != 0) {
+                daysOfWeek.add(day);
+            }
+        }
+        recurrence.setDaysOfWeek(daysOfWeek);
+        int until = in.getInt();
+        recurrence.setUntil(until == NULL_MINUTES ? null : LocalDate.ofEpochDay(until));
+        int count = in.getInt();
+        recurrence.setCount(count == NULL_REFERENCE ? null : count);
+        int exceptions = in.getInt();
+        for (int i = 0; i < exceptions; i++) {
+            recurrence.addException(LocalDate.ofEpochDay(in.getInt()));
+        }
+        return recurrence;
+    }
+
+    static int toEpochMinutes(LocalDateTime dateTime) {
+        return dateTime == null ? NULL_MINUTES : Math.toIntExact(dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    static LocalDateTime fromEpochMinutes(int minutes) {
+        return minutes == NULL_MINUTES ? null : LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Distinct strings in insertion order, each mapped to its index in the table.
+     */
+    static final class StringTable {
+        private final Map<String, Integer> values = new LinkedHashMap<>();
+
+        void add(String value) {
+            if (value != null) {
+                values.putIfAbsent(value, values.size());
+            }
+        }
+
+        int indexOf(String value) {
+            return value == null ? NULL_REFERENCE : values.get(value);
+        }
+    }
+}
@@ -2,60 +2,507 @@ package com.example.service;
 
 import com.example.model.Note;
 import com.example.model.Event;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DatabindException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class DataStorage {
 
     private static final String NOTES_FILE_PATH = "notes.json";
     private static final String EVENTS_FILE_PATH = "events.json";
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-            .enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String NOTES_BINARY_FILE_PATH = "notes.bin";
+    private static final String EVENTS_BINARY_FILE_PATH = "events.bin";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String UNREPLAYED_JOURNAL_SUFFIX = ".unreplayed";
+    private static final String JOURNAL_PROPERTY = "noteplanner.journal";
+    private static final String FORMAT_PROPERTY = "noteplanner.format";
+    private static final String PARTITIONED_EVENTS_PROPERTY = "noteplanner.events.partitioned";
+    private static final String COMPRESSION_PROPERTY = "noteplanner.compression";
+    private static final String STORAGE_PROPERTY = "noteplanner.storage";
+    private static final String SQL_URL_PROPERTY = "noteplanner.sql.url";
+    private static final String SQL_DATABASE_NAME = "noteplanner";
+    private static final String DATA_DIRECTORY_PROPERTY = "noteplanner.data.dir";
+    private static final String EVENT_SEGMENTS_DIRECTORY = "events";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
 
+    private static final Store<Note> NOTES = new Store<>("Notes", Note.class,
+            NOTES_FILE_PATH, NOTES_BINARY_FILE_PATH, BinarySnapshot.NOTES);
+    private static final Store<Event> EVENTS = new Store<>("Events", Event.class,
+            EVENTS_FILE_PATH, EVENTS_BINARY_FILE_PATH, BinarySnapshot.EVENTS);
+    private static SqlDatabase sqlDatabase;
+
+    /**
+     * Setting up Jackson takes a while, so it is done when a file is first read or written rather than when
+     * the storage options are first checked, which happens before the window is shown.
+     */
+    private static final class Mappers {
+        private static final ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        private static final ObjectMapper journalMapper = objectMapper.copy()
+                .disable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Resolves a storage file against the data directory, the working directory unless set with
+     * -Dnoteplanner.data.dir. Read on every access, so it can be changed at runtime, e.g. by benchmarks.
+     */
+    static Path dataPath(String fileName) {
+        return Path.of(System.getProperty(DATA_DIRECTORY_PROPERTY, ".")).resolve(fileName);
+    }
+
+    /**
+     * Whether edits are appended to a journal instead of rewriting the whole file, enabled with -Dnoteplanner.journal=true.
+     */
+    public static boolean isJournalEnabled() {
+        return Boolean.getBoolean(JOURNAL_PROPERTY);
+    }
+
+    /**
+     * Whether data is kept in binary snapshots instead of JSON, enabled with -Dnoteplanner.format=binary.
+     * The JSON files are then only read when no binary snapshot exists yet, and written on export.
+     */
+    public static boolean isBinaryFormatEnabled() {
+        return "binary".equalsIgnoreCase(System.getProperty(FORMAT_PROPERTY));
+    }
+
+    /**
+     * Whether events are stored in monthly segments and loaded as they come into view, enabled with
+     * -Dnoteplanner.events.partitioned=true.
+     */
+    public static boolean isEventPartitioningEnabled() {
+        return Boolean.getBoolean(PARTITIONED_EVENTS_PROPERTY);
+    }
+
+    /**
+     * Whether JSON storage files are gzip-compressed, enabled with -Dnoteplanner.compression=gzip. Compressed
+     * and plain files are told apart by their content, so existing files stay readable either way.
+     */
+    public static boolean isCompressionEnabled() {
+        return "gzip".equalsIgnoreCase(System.getProperty(COMPRESSION_PROPERTY));
+    }
+
+    /**
+     * Whether notes and events are kept in an embedded SQL database instead of files, enabled with
+     * -Dnoteplanner.storage=sql. The database location can be changed with -Dnoteplanner.sql.url.
+     */
+    public static boolean isSqlStorageEnabled() {
+        return "sql".equalsIgnoreCase(System.getProperty(STORAGE_PROPERTY));
+    }
+
+    /**
+     * Whether the event storage selected by the system properties loads events by range, which the UI needs
+     * to know before the storage is opened.
+     */
+    public static boolean isEventLoadingByRangeEnabled() {
+        return isSqlStorageEnabled() || isEventPartitioningEnabled();
+    }
+
+    /**
+     * Opens the note storage selected by the system properties. If the database cannot be opened, the
+     * JSON files are used instead.
+     */
+    public static NoteRepository openNoteRepository() {
+        if (isSqlStorageEnabled()) {
+            try {
+                SqlNoteRepository repository = new SqlNoteRepository(sqlDatabase());
+                repository.importIfEmpty(DataStorage::loadNotes);
+                return repository;
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.out.println("Could not open the database, using " + NOTES_FILE_PATH + " instead.");
+            }
+        }
+        return new JsonNoteRepository(isJournalEnabled() ? NOTES.openJournal() : null);
+    }
+
+    /**
+     * Opens the event storage selected by the system properties, see {@link #openNoteRepository()}.
+     */
+    public static EventRepository openEventRepository() {
+        if (isSqlStorageEnabled()) {
+            try {
+                SqlEventRepository repository = new SqlEventRepository(sqlDatabase());
+                repository.importIfEmpty(DataStorage::loadEvents);
+                return repository;
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.out.println("Could not open the database, using " + EVENTS_FILE_PATH + " instead.");
+            }
+        }
+        if (isEventPartitioningEnabled()) {
+            return new PartitionedEventRepository(dataPath(EVENT_SEGMENTS_DIRECTORY));
+        }
+        return new JsonEventRepository(isJournalEnabled() ? EVENTS.openJournal() : null);
+    }
+
+    private static synchronized SqlDatabase sqlDatabase() throws IOException {
+        if (sqlDatabase == null || !sqlDatabase.isOpen()) {
+            String defaultUrl = "jdbc:h2:file:" + dataPath(SQL_DATABASE_NAME).toAbsolutePath();
+            sqlDatabase = SqlDatabase.open(System.getProperty(SQL_URL_PROPERTY, defaultUrl));
+        }
+        return sqlDatabase;
+    }
+
+    /**
+     * Writes all notes. The previous file stays intact until the new one is completely written, and any
+     * journal is discarded because the new file already contains its changes.
+     */
     public static void saveNotes(List<Note> notes) throws IOException {
-        objectMapper.writeValue(new File(NOTES_FILE_PATH), notes);
+        NOTES.save(notes);
+    }
+
+    /**
+     * Writes all notes as JSON, whatever the storage format.
+     */
+    public static void exportNotes(List<Note> notes) throws IOException {
+        NOTES.exportJson(notes);
     }
 
     public static List<Note> loadNotes() {
-        File file = new File(NOTES_FILE_PATH);
-        if (!file.exists()) {
-            System.out.println("Notes file does not exist.");
-            return new ArrayList<>(); // Return an empty list if the file doesn't exist
-        }
-        try {
-            CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, Note.class);
-            return objectMapper.readValue(file, listType);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new ArrayList<>(); // Return an empty list in case of an error
-        }
+        List<Note> notes = new ArrayList<>();
+        loadNotes(DEFAULT_BATCH_SIZE, notes::addAll);
+        return notes;
+    }
+
+    /**
+     * Streams notes from storage, handing them to the consumer in batches of at most batchSize elements.
+     */
+    public static void loadNotes(int batchSize, Consumer<List<Note>> batchConsumer) {
+        NOTES.load(batchSize, batchConsumer);
     }
 
+    /**
+     * Writes all events, see {@link #saveNotes(List)}.
+     */
     public static void saveEvents(List<Event> events) throws IOException {
-        objectMapper.writeValue(new File(EVENTS_FILE_PATH), events);
+        EVENTS.save(events);
+    }
+
+    /**
+     * Writes all events as JSON, whatever the storage format.
+     */
+    public static void exportEvents(List<Event> events) throws IOException {
+        EVENTS.exportJson(events);
     }
 
     public static List<Event> loadEvents() {
-        File file = new File(EVENTS_FILE_PATH);
-        if (!file.exists()) {
-            System.out.println("Events file does not exist.");
-            return new ArrayList<>(); // Return an empty list if the file doesn't exist
-        }
-        try {
-            CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, Event.class);
-            return objectMapper.readValue(file, listType);
+        List<Event> events = new ArrayList<>();
+        loadEvents(DEFAULT_BATCH_SIZE, events::addAll);
+        return events;
+    }
+
+    /**
+     * Streams events from storage, handing them to the consumer in batches of at most batchSize elements.
+     */
+    public static void loadEvents(int batchSize, Consumer<List<Event>> batchConsumer) {
+        EVENTS.load(batchSize, batchConsumer);
+    }
+
+    /**
+     * Reads one monthly event segment, see {@link PartitionedEventRepository}.
+     */
+    static List<Event> readEventSegment(Path path) {
+        List<Event> events = new ArrayList<>();
+        streamList(path.toFile(), Event.class, DEFAULT_BATCH_SIZE, events::addAll);
+        return events;
+    }
+
+    /**
+     * Writes one monthly event segment, replacing the previous version in a single rename.
+     */
+    static void writeEventSegment(Path path, List<Event> events) throws IOException {
+        commitTemporary(writeTemporary(path, out -> writeJson(out, events, isCompressionEnabled())), path);
+    }
+
+    /**
+     * Single-line JSON of value, for structured values kept in a database column.
+     */
+    static String toJson(Object value) throws IOException {
+        return Mappers.journalMapper.writeValueAsString(value);
+    }
+
+    static <T> T fromJson(String json, Class<T> type) throws IOException {
+        return Mappers.journalMapper.readValue(json, type);
+    }
+
+    private static Path journalPath(Path snapshotPath) {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    @FunctionalInterface
+    interface StreamWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes to a temporary file next to target and forces it to disk.
+     */
+    static Path writeTemporary(Path target, StreamWriter writer) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+            writer.write(out);
+            out.getFD().sync();
+        }
+        return temporary;
+    }
+
+    /**
+     * Replaces target with a file produced by {@link #writeTemporary(Path, StreamWriter)} in a single rename.
+     */
+    static void commitTemporary(Path temporary, Path target) throws IOException {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes value as JSON, through a gzip compressor if compressed is set. The generator streams into the
+     * compressor, so the document is never held in memory as a whole.
+     */
+    private static void writeJson(OutputStream out, Object value, boolean compressed) throws IOException {
+        if (!compressed) {
+            Mappers.objectMapper.writeValue(out, value);
+            return;
+        }
+        GZIPOutputStream gzip = new GZIPOutputStream(out, STREAM_BUFFER_SIZE) {
+            {
+                def.setLevel(Deflater.BEST_SPEED); // Saves run after every burst of edits, favour speed over ratio
+            }
+        };
+        Mappers.objectMapper.writeValue(gzip, value);
+        gzip.finish(); // Writes the trailer without closing the file, which is still to be synced
+    }
+
+    /**
+     * Opens a JSON file for reading, decompressing it if it starts with the gzip magic number.
+     */
+    private static InputStream openJson(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), STREAM_BUFFER_SIZE);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(in, STREAM_BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Reads a JSON array one element at a time, binding each straight from the parser. Elements that cannot be
+     * bound to the target type are skipped; if the file itself is damaged, everything read before the damage
+     * is still delivered.
+     *
+     * @return whether every element was delivered
+     */
+    private static <T> boolean streamList(File file, Class<T> type, int batchSize, Consumer<List<T>> batchConsumer) {
+        List<T> batch = new ArrayList<>(batchSize);
+        int skipped = 0;
+        boolean complete = true;
+        ObjectReader reader = Mappers.objectMapper.readerFor(type);
+        try (JsonParser parser = Mappers.objectMapper.getFactory().createParser(openJson(file))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                System.out.println("Unexpected content in " + file + ", expected a JSON array.");
+                return false;
+            }
+            JsonStreamContext elements = parser.getParsingContext();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                try {
+                    batch.add(reader.readValue(parser));
+                } catch (DatabindException e) {
+                    skipped++;
+                    System.out.println("Skipping malformed record in " + file + ": " + e.getOriginalMessage());
+                    skipToEndOfElement(parser, elements);
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
         } catch (IOException e) {
-            e.printStackTrace();
-            return new ArrayList<>(); // Return an empty list in case of an error
+            e.printStackTrace(); // Keep whatever was read before the damaged part of the file
+            complete = false;
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+        if (skipped > 0) {
+            System.out.println("Skipped " + skipped + " malformed record(s) in " + file + ".");
+        }
+        return complete && skipped == 0;
+    }
+
+    /**
+     * Moves past the rest of an array element whose binding failed somewhere inside it, to its last token.
+     */
+    private static void skipToEndOfElement(JsonParser parser, JsonStreamContext elements) throws IOException {
+        while (parser.getParsingContext() != elements) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Files backing one collection: a JSON file, an optional binary snapshot, and a journal next to
+     * whichever of the two is in use.
+     */
+    private static final class Store<T> {
+        private final String label;
+        private final Class<T> type;
+        private final String jsonFileName;
+        private final String binaryFileName;
+        private final BinarySnapshot<T> binaryFormat;
+
+        Store(String label, Class<T> type, String jsonFileName, String binaryFileName, BinarySnapshot<T> binaryFormat) {
+            this.label = label;
+            this.type = type;
+            this.jsonFileName = jsonFileName;
+            this.binaryFileName = binaryFileName;
+            this.binaryFormat = binaryFormat;
+        }
+
+        private Path jsonPath() {
+            return dataPath(jsonFileName);
+        }
+
+        private boolean isBinary(Path snapshotPath) {
+            return snapshotPath.getFileName().toString().equals(binaryFileName);
+        }
+
+        private Path activePath() {
+            return dataPath(isBinaryFormatEnabled() ? binaryFileName : jsonFileName);
+        }
+
+        /**
+         * JSON is compressed when it is the storage format, but not when it is only written for export.
+         */
+        private void writeSnapshot(Path snapshotPath, List<T> items, OutputStream out) throws IOException {
+            if (isBinary(snapshotPath)) {
+                binaryFormat.write(items, out);
+            } else {
+                writeJson(out, items, isCompressionEnabled() && !isBinaryFormatEnabled());
+            }
+        }
+
+        /**
+         * @return whether every record of the snapshot was delivered
+         */
+        private boolean readSnapshot(Path snapshotPath, int batchSize, Consumer<List<T>> batchConsumer) {
+            if (!isBinary(snapshotPath)) {
+                return streamList(snapshotPath.toFile(), type, batchSize, batchConsumer);
+            }
+            try {
+                binaryFormat.read(snapshotPath, batchSize, batchConsumer);
+                return true;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+
+        MutationJournal<T> openJournal() {
+            return journalFor(activePath());
+        }
+
+        private MutationJournal<T> journalFor(Path snapshotPath) {
+            return new MutationJournal<>(journalPath(snapshotPath), snapshotPath,
+                    (items, out) -> writeSnapshot(snapshotPath, items, out), Mappers.journalMapper);
+        }
+
+        void save(List<T> items) throws IOException {
+            write(activePath(), items);
+        }
+
+        void exportJson(List<T> items) throws IOException {
+            write(jsonPath(), items);
+        }
+
+        private void write(Path snapshotPath, List<T> items) throws IOException {
+            commitTemporary(writeTemporary(snapshotPath, out -> writeSnapshot(snapshotPath, items, out)), snapshotPath);
+            Files.deleteIfExists(journalPath(snapshotPath));
+        }
+
+        /**
+         * Loads the active snapshot and replays its journal. In binary mode the JSON file is imported
+         * when no binary snapshot has been written yet.
+         */
+        void load(int batchSize, Consumer<List<T>> batchConsumer) {
+            Path journalSnapshotPath = activePath();
+            Path snapshotPath = Files.exists(journalSnapshotPath) ? journalSnapshotPath : jsonPath();
+            if (!Files.exists(snapshotPath) && !Files.exists(journalPath(journalSnapshotPath))) {
+                System.out.println(label + " file does not exist.");
+                return;
+            }
+            if (!Files.exists(journalPath(journalSnapshotPath))) {
+                readSnapshot(snapshotPath, batchSize, batchConsumer);
+                return;
+            }
+
+            // Journal records address the list by index, so the whole list is needed before replaying them.
+            // Until the first compaction in binary mode, the journal applies to the imported JSON file.
+            List<T> items = new ArrayList<>();
+            boolean complete = !Files.exists(snapshotPath) || readSnapshot(snapshotPath, DEFAULT_BATCH_SIZE, items::addAll);
+            MutationJournal<T> journal = journalFor(journalSnapshotPath);
+            if (complete) {
+                try {
+                    journal.replay(items, type);
+                } catch (IOException | IndexOutOfBoundsException e) {
+                    e.printStackTrace(); // Keep the snapshot and whatever part of the journal could be applied
+                    complete = false;
+                }
+            } else {
+                // Records skipped in the snapshot shift the indexes the journal refers to
+                System.out.println("Not replaying " + journalPath(journalSnapshotPath) + " onto an incomplete snapshot.");
+            }
+            if (!complete) {
+                restartJournal(journalSnapshotPath, journal, items);
+            }
+            for (int from = 0; from < items.size(); from += batchSize) {
+                batchConsumer.accept(new ArrayList<>(items.subList(from, Math.min(from + batchSize, items.size()))));
+            }
+        }
+
+        /**
+         * Makes the loaded items the new snapshot, after a journal could not be replayed completely. Records
+         * appended to that journal would be replayed at the wrong indexes, or not at all, so it is set aside
+         * and compaction starts an empty one.
+         */
+        private void restartJournal(Path snapshotPath, MutationJournal<T> journal, List<T> items) {
+            Path journalPath = journalPath(snapshotPath);
+            Path unreplayedPath = journalPath.resolveSibling(journalPath.getFileName() + UNREPLAYED_JOURNAL_SUFFIX);
+            try {
+                Files.copy(journalPath, unreplayedPath, StandardCopyOption.REPLACE_EXISTING);
+                journal.compact(items);
+                journal.close();
+                System.out.println("Saved " + label.toLowerCase() + " as loaded; the journal was kept in " + unreplayedPath + ".");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Event;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Storage backend for events. Backends that can query by date load events per visible range instead of
+ * all at startup.
+ */
+public interface EventRepository extends Repository<Event> {
+
+    /**
+     * Whether events are loaded through {@link #loadRange} instead of {@link #loadAll}.
+     */
+    boolean isLoadedByRange();
+
+    /**
+     * Returns the stored events starting between from and to (inclusive) that have not been loaded yet; they
+     * are appended to the end of the collection. Callers load the date of an event before inserting or
+     * updating it, so stored events of that date cannot be loaded twice.
+     */
+    List<Event> loadRange(LocalDate from, LocalDate to) throws IOException;
+
+    /**
+     * Returns the stored events of category, loaded or not.
+     */
+    List<Event> findByCategory(Category category) throws IOException;
+
+    /**
+     * Returns the stored events, loaded or not, with a tag containing term (in lower case), ignoring case.
+     */
+    List<Event> findByTag(String term) throws IOException;
+}
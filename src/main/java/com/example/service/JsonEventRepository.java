@@ -0,0 +1,37 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Event;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Events kept in {@code events.json}, or {@code events.bin} in binary mode. All events are loaded at startup.
+ */
+class JsonEventRepository extends JsonRepository<Event> implements EventRepository {
+
+    JsonEventRepository(MutationJournal<Event> journal) {
+        super("events", DataStorage::loadEvents, DataStorage::saveEvents, DataStorage::exportEvents, journal);
+    }
+
+    @Override
+    public boolean isLoadedByRange() {
+        return false;
+    }
+
+    @Override
+    public List<Event> loadRange(LocalDate from, LocalDate to) {
+        return List.of();
+    }
+
+    @Override
+    public List<Event> findByCategory(Category category) {
+        return items.stream().filter(event -> event.getCategory() == category).toList();
+    }
+
+    @Override
+    public List<Event> findByTag(String term) {
+        return items.stream().filter(event -> event.getTags().stream().anyMatch(tag -> tag.toLowerCase().contains(term))).toList();
+    }
+}
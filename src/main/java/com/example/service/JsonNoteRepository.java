@@ -0,0 +1,13 @@
+package com.example.service;
+
+import com.example.model.Note;
+
+/**
+ * Notes kept in {@code notes.json}, or {@code notes.bin} in binary mode.
+ */
+class JsonNoteRepository extends JsonRepository<Note> implements NoteRepository {
+
+    JsonNoteRepository(MutationJournal<Note> journal) {
+        super("notes", DataStorage::loadNotes, DataStorage::saveNotes, DataStorage::exportNotes, journal);
+    }
+}
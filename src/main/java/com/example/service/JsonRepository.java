@@ -0,0 +1,141 @@
+package com.example.service;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A collection stored as one file through {@link DataStorage}. Changes are applied to a copy of the list
+ * held here; it is written as a whole once changes settle, or, in journal mode, every change is appended to
+ * the collection's {@link MutationJournal} and the file is only rewritten when the journal grows past
+ * {@link #COMPACTION_THRESHOLD_BYTES}.
+ */
+abstract class JsonRepository<T> implements Repository<T> {
+
+    private static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+    @FunctionalInterface
+    interface Loader<T> {
+        void load(int batchSize, Consumer<List<T>> batchConsumer);
+    }
+
+    @FunctionalInterface
+    interface ListWriter<T> {
+        void write(List<T> items) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordEncoder {
+        byte[] encode() throws IOException;
+    }
+
+    private final String name;
+    private final Loader<T> loader;
+    private final ListWriter<T> writer;
+    private final ListWriter<T> exporter;
+    private final MutationJournal<T> journal;
+    protected final List<T> items = new ArrayList<>();
+    private boolean dirty;
+    private long journalBytes;
+
+    JsonRepository(String name, Loader<T> loader, ListWriter<T> writer, ListWriter<T> exporter, MutationJournal<T> journal) {
+        this.name = name;
+        this.loader = loader;
+        this.writer = writer;
+        this.exporter = exporter;
+        this.journal = journal;
+        if (journal != null) {
+            try {
+                journalBytes = journal.size();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void loadAll(int batchSize, Consumer<List<T>> batchConsumer) {
+        items.clear();
+        loader.load(batchSize, batch -> {
+            items.addAll(batch);
+            batchConsumer.accept(batch);
+        });
+    }
+
+    @Override
+    public void insert(int index, T item) throws IOException {
+        items.add(index, item);
+        record(() -> journal.encodeAdd(index, item));
+    }
+
+    @Override
+    public void update(int index, T item) throws IOException {
+        items.set(index, item);
+        record(() -> journal.encodeSet(index, item));
+    }
+
+    @Override
+    public void delete(int index) throws IOException {
+        items.remove(index);
+        record(() -> journal.encodeRemove(index));
+    }
+
+    private void record(RecordEncoder encoder) throws IOException {
+        if (journal == null) {
+            dirty = true;
+            return;
+        }
+        try {
+            byte[] record = encoder.encode();
+            journal.append(record);
+            journalBytes += record.length;
+        } catch (IOException e) {
+            dirty = true; // The journal is missing this change, so the next flush compacts the whole list
+            throw e;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (journal == null) {
+            if (dirty) {
+                writer.write(items);
+                dirty = false;
+            }
+        } else if (dirty || journalBytes > COMPACTION_THRESHOLD_BYTES) {
+            compact();
+        }
+    }
+
+    private void compact() throws IOException {
+        journal.compact(items);
+        journalBytes = 0;
+        dirty = false;
+        System.out.println("Compacted " + name + " journal");
+    }
+
+    /**
+     * In binary mode the JSON file is refreshed as well, so it stays usable for export.
+     */
+    @Override
+    public void writeAll() throws IOException {
+        if (journal != null) {
+            compact();
+        } else {
+            writer.write(items);
+            dirty = false;
+        }
+        if (DataStorage.isBinaryFormatEnabled()) {
+            exporter.write(items);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
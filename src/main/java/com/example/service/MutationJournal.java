@@ -0,0 +1,232 @@
+package com.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of list mutations stored next to a snapshot file. Every record is a single JSON line
+ * describing an insert, replacement or removal at a list index, and is forced to disk before the append
+ * returns. Compaction writes a fresh snapshot and empties the journal.
+ *
+ * <p>Compaction is crash safe: before the new snapshot replaces the old one, a marker holding its length and
+ * checksum is appended. On replay, records up to a marker that matches the snapshot on disk are skipped,
+ * because they are already contained in it.
+ */
+public class MutationJournal<T> {
+
+    private static final String ADD = "ADD";
+    private static final String SET = "SET";
+    private static final String REMOVE = "REMOVE";
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final SnapshotWriter<T> snapshotWriter;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+
+    MutationJournal(Path journalPath, Path snapshotPath, SnapshotWriter<T> snapshotWriter, ObjectMapper objectMapper) {
+        this.journalPath = journalPath;
+        this.snapshotPath = snapshotPath;
+        this.snapshotWriter = snapshotWriter;
+        this.objectMapper = objectMapper;
+    }
+
+    @FunctionalInterface
+    interface SnapshotWriter<T> {
+        void write(List<T> items, OutputStream out) throws IOException;
+    }
+
+    /**
+     * Encodes an insert of item at index.
+     */
+    public byte[] encodeAdd(int index, T item) throws IOException {
+        return encode(record(ADD).put("index", index).set("value", objectMapper.valueToTree(item)));
+    }
+
+    /**
+     * Encodes a replacement of the element at index with item.
+     */
+    public byte[] encodeSet(int index, T item) throws IOException {
+        return encode(record(SET).put("index", index).set("value", objectMapper.valueToTree(item)));
+    }
+
+    /**
+     * Encodes a removal of the element at index.
+     */
+    public byte[] encodeRemove(int index) throws IOException {
+        return encode(record(REMOVE).put("index", index));
+    }
+
+    private ObjectNode record(String operation) {
+        return objectMapper.createObjectNode().put("op", operation);
+    }
+
+    private byte[] encode(JsonNode record) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    /**
+     * Appends an encoded record and forces it to disk.
+     */
+    public synchronized void append(byte[] record) throws IOException {
+        FileChannel out = channel();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        out.force(false);
+    }
+
+    /**
+     * Current size of the journal in bytes.
+     */
+    public synchronized long size() throws IOException {
+        return Files.exists(journalPath) ? Files.size(journalPath) : 0;
+    }
+
+    /**
+     * Replaces the snapshot with the given items and empties the journal.
+     */
+    public synchronized void compact(List<T> items) throws IOException {
+        Path temporary = DataStorage.writeTemporary(snapshotPath, out -> snapshotWriter.write(items, out));
+        append(encode(record(SNAPSHOT).put("length", Files.size(temporary)).put("crc", checksum(temporary))));
+        DataStorage.commitTemporary(temporary, snapshotPath);
+        FileChannel out = channel();
+        out.truncate(0);
+        out.force(true);
+    }
+
+    /**
+     * Releases the journal file.
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Applies the journal to items loaded from the snapshot. A torn record at the end of the journal,
+     * left behind by a crash during an append, ends the replay and is cut off the file, so the next
+     * append starts on a line of its own instead of being joined to the partial one.
+     */
+    public void replay(List<T> items, Class<T> type) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        byte[] journal = Files.readAllBytes(journalPath);
+        List<JsonNode> records = new ArrayList<>();
+        int end = 0; // Offset after the last complete record
+        while (end < journal.length) {
+            int lineEnd = indexOfNewline(journal, end);
+            if (lineEnd < 0) {
+                break; // An append always ends with a newline, so the record was not completely written
+            }
+            String line = new String(journal, end, lineEnd - end, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                try {
+                    records.add(objectMapper.readTree(line));
+                } catch (IOException e) {
+                    break;
+                }
+            }
+            end = lineEnd + 1;
+        }
+        if (end < journal.length) {
+            System.out.println("Ignoring torn record at the end of " + journalPath + ".");
+            truncate(end);
+        }
+
+        int start = firstRecordAfterSnapshot(records);
+        for (JsonNode record : records.subList(start, records.size())) {
+            String operation = record.path("op").asText();
+            int index = record.path("index").asInt();
+            switch (operation) {
+                case ADD -> items.add(index, objectMapper.treeToValue(record.get("value"), type));
+                case SET -> items.set(index, objectMapper.treeToValue(record.get("value"), type));
+                case REMOVE -> items.remove(index);
+                default -> { } // Snapshot markers that did not match the snapshot on disk carry no change
+            }
+        }
+    }
+
+    private static int indexOfNewline(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized void truncate(long length) throws IOException {
+        try (FileChannel out = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            out.truncate(length);
+            out.force(true);
+        }
+    }
+
+    /**
+     * Finds the position after the last snapshot marker describing the snapshot currently on disk.
+     */
+    private int firstRecordAfterSnapshot(List<JsonNode> records) throws IOException {
+        Long snapshotLength = null;
+        Long snapshotChecksum = null;
+        for (int i = records.size() - 1; i >= 0; i--) {
+            JsonNode record = records.get(i);
+            if (!SNAPSHOT.equals(record.path("op").asText())) {
+                continue;
+            }
+            if (snapshotLength == null) {
+                if (!Files.exists(snapshotPath)) {
+                    return 0;
+                }
+                snapshotLength = Files.size(snapshotPath);
+                snapshotChecksum = checksum(snapshotPath);
+            }
+            if (record.path("length").asLong() == snapshotLength && record.path("crc").asLong() == snapshotChecksum) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static long checksum(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.service;
+
+import com.example.model.Note;
+
+/**
+ * Storage backend for notes.
+ */
+public interface NoteRepository extends Repository<Note> {
+}
@@ -0,0 +1,241 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Event;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Event storage split into one JSON segment per month ({@code events/2024-08.json}). Segments are loaded
+ * when a date range comes into view, and only segments whose events changed are written back.
+ *
+ * <p>The month each loaded event is stored under is kept next to it by index, so an event whose date is
+ * edited into another month marks both segments as changed.
+ *
+ * <p>Recurring events can occur in any month, so they are kept in their own segment ({@code events/recurring.json})
+ * that is loaded together with the first range.
+ */
+class PartitionedEventRepository implements EventRepository {
+
+    /**
+     * Key of the segment holding the recurring events.
+     */
+    private static final YearMonth SERIES = YearMonth.of(0, 1);
+
+    private final Path directory;
+    private final Map<YearMonth, List<Event>> segments = new HashMap<>();
+    private final Map<YearMonth, List<Event>> notYetLoaded = new HashMap<>();
+    private final List<Event> items = new ArrayList<>();
+    private final List<YearMonth> months = new ArrayList<>();
+    private final Set<YearMonth> dirtyMonths = new HashSet<>();
+    private boolean migrated;
+
+    PartitionedEventRepository(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Splits an existing single-file event list into monthly segments, once, if no segments exist yet.
+     */
+    private void migrateIfNeeded() throws IOException {
+        if (migrated || Files.isDirectory(directory)) {
+            migrated = true;
+            return;
+        }
+        // Segments are written to a staging directory first, so an interrupted migration is simply redone
+        Path staging = directory.resolveSibling(directory.getFileName() + ".migrating");
+        Files.createDirectories(staging);
+        Map<YearMonth, List<Event>> byMonth = new LinkedHashMap<>();
+        for (Event event : DataStorage.loadEvents()) {
+            byMonth.computeIfAbsent(monthOf(event), month -> new ArrayList<>()).add(event);
+        }
+        for (Map.Entry<YearMonth, List<Event>> entry : byMonth.entrySet()) {
+            DataStorage.writeEventSegment(staging.resolve(segmentPath(entry.getKey()).getFileName()), entry.getValue());
+        }
+        Files.move(staging, directory, StandardCopyOption.ATOMIC_MOVE);
+        migrated = true;
+        System.out.println("Split events into " + byMonth.size() + " monthly segments.");
+    }
+
+    @Override
+    public boolean isLoadedByRange() {
+        return true;
+    }
+
+    /**
+     * Events are only loaded per range.
+     */
+    @Override
+    public void loadAll(int batchSize, Consumer<List<Event>> batchConsumer) {
+    }
+
+    @Override
+    public List<Event> loadRange(LocalDate from, LocalDate to) throws IOException {
+        List<Event> loaded = new ArrayList<>();
+        List<YearMonth> range = new ArrayList<>(List.of(SERIES));
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            range.add(month);
+        }
+        // Every segment is read before any is handed out, so a failed read leaves nothing half loaded
+        for (YearMonth month : range) {
+            readSegment(month);
+        }
+        for (YearMonth month : range) {
+            List<Event> events = notYetLoaded.remove(month);
+            if (events != null) {
+                for (Event event : events) {
+                    items.add(event);
+                    months.add(month);
+                }
+                loaded.addAll(events);
+            }
+        }
+        return loaded;
+    }
+
+
+    /**
+     * Reads a segment from disk the first time it is needed. Its events are handed out by the next
+     * {@link #loadRange} covering the month, even if the segment was read for another reason. The first
+     * read splits a single-file event list into segments.
+     */
+    private void readSegment(YearMonth month) throws IOException {
+        if (segments.containsKey(month)) {
+            return;
+        }
+        migrateIfNeeded();
+        Path path = segmentPath(month);
+        List<Event> events = Files.exists(path) ? DataStorage.readEventSegment(path) : List.of();
+        segments.put(month, new ArrayList<>(events));
+        notYetLoaded.put(month, events);
+    }
+
+    /**
+     * The segment of the new event is read regardless of whether its month was loaded, so writing it
+     * back cannot drop the events already stored there.
+     */
+    @Override
+    public void insert(int index, Event event) throws IOException {
+        YearMonth month = monthOf(event);
+        readSegment(month);
+        segments.get(month).add(event);
+        items.add(index, event);
+        months.add(index, month);
+        dirtyMonths.add(month);
+    }
+
+    /**
+     * Moves the event to another segment if its date changed month.
+     */
+    @Override
+    public void update(int index, Event event) throws IOException {
+        YearMonth previous = months.get(index);
+        YearMonth current = monthOf(event);
+        segments.get(previous).remove(items.get(index));
+        dirtyMonths.add(previous);
+        readSegment(current);
+        segments.get(current).add(event);
+        items.set(index, event);
+        months.set(index, current);
+        dirtyMonths.add(current);
+    }
+
+    @Override
+    public void delete(int index) {
+        YearMonth month = months.remove(index);
+        segments.get(month).remove(items.remove(index));
+        dirtyMonths.add(month);
+    }
+
+    /**
+     * Writes the changed segments; empty segments are deleted. Segments whose write failed stay dirty
+     * and are retried with the next flush.
+     */
+    @Override
+    public void flush() throws IOException {
+        for (YearMonth month : new ArrayList<>(dirtyMonths)) {
+            Path path = segmentPath(month);
+            List<Event> events = segments.get(month);
+            if (events.isEmpty()) {
+                Files.deleteIfExists(path);
+            } else {
+                DataStorage.writeEventSegment(path, events);
+            }
+            dirtyMonths.remove(month);
+        }
+    }
+
+    /**
+     * Writes every segment read so far.
+     */
+    @Override
+    public void writeAll() throws IOException {
+        dirtyMonths.addAll(segments.keySet());
+        flush();
+    }
+
+    @Override
+    public List<Event> findByCategory(Category category) throws IOException {
+        return findStored(event -> event.getCategory() == category);
+    }
+
+    @Override
+    public List<Event> findByTag(String term) throws IOException {
+        return findStored(event -> event.getTags().stream().anyMatch(tag -> tag.toLowerCase().contains(term)));
+    }
+
+    /**
+     * Searches every segment. Segments that have not been read are read for the search only, so searching
+     * does not keep the whole history in memory.
+     */
+    private List<Event> findStored(Predicate<Event> condition) throws IOException {
+        migrateIfNeeded();
+        List<Event> found = new ArrayList<>();
+        for (List<Event> events : segments.values()) {
+            events.stream().filter(condition).forEach(found::add);
+        }
+        if (!Files.isDirectory(directory)) {
+            return found;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path path : files) {
+                if (!segments.containsKey(monthOf(path))) {
+                    DataStorage.readEventSegment(path).stream().filter(condition).forEach(found::add);
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Path segmentPath(YearMonth month) {
+        return directory.resolve(month.equals(SERIES) ? "recurring.json" : month + ".json");
+    }
+
+    private static YearMonth monthOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return name.equals("recurring.json") ? SERIES : YearMonth.parse(name.substring(0, name.length() - ".json".length()));
+    }
+
+    private static YearMonth monthOf(Event event) {
+        return event.isRecurring() ? SERIES : YearMonth.from(event.getDateTime());
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Event;
+import com.example.model.Note;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Write-behind persistence for notes and events. Every mutation is handed to the collection's
+ * {@link Repository} on a single writer thread, in the order it was made; once no new change has arrived
+ * for the debounce delay, the repositories are flushed, so a burst of mutations costs a single save.
+ *
+ * <p>Repositories never see the instances shown in the UI. Every recorded item is copied on the caller's
+ * thread, and loaded items are copied before they are handed out, so the UI can keep editing its objects
+ * while the writer serialises. Each save then reflects the lists exactly as they were after the last change
+ * recorded before it, at the cost of one copy per change.
+ *
+ * <p>The storage backend is chosen by {@link DataStorage#openNoteRepository()} and
+ * {@link DataStorage#openEventRepository()}. Opening a database may import the JSON files, so the repositories
+ * are opened by the first task of the writer thread rather than by the constructor. Only the methods that
+ * wait for the writer anyway, such as {@link #saveAll()}, wait for the repositories to be opened.
+ */
+public class PersistenceService {
+
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 1000;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final CompletableFuture<Void> opened;
+    private final boolean eventsLoadedByRange;
+    private NoteRepository notes; // Set by the first writer task
+    private EventRepository events;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> pendingFlush;
+    private long firstPendingChange;
+    private boolean loading;
+    private final List<Runnable> heldBack = new ArrayList<>(); // Writer tasks queued while loading
+    private final Queue<Event> rangeLoaded = new ConcurrentLinkedQueue<>(); // Not taken yet, in load order
+
+    public PersistenceService() {
+        this(DataStorage::openNoteRepository, DataStorage::openEventRepository, DataStorage.isEventLoadingByRangeEnabled(),
+                DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public PersistenceService(NoteRepository notes, EventRepository events) {
+        this(notes, events, DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public PersistenceService(NoteRepository notes, EventRepository events, long debounceMillis, long maxDelayMillis) {
+        this(() -> notes, () -> events, events.isLoadedByRange(), debounceMillis, maxDelayMillis);
+    }
+
+    private PersistenceService(Supplier<NoteRepository> notes, Supplier<EventRepository> events, boolean eventsLoadedByRange,
+                               long debounceMillis, long maxDelayMillis) {
+        this.eventsLoadedByRange = eventsLoadedByRange;
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(daemonThreads("persistence-writer"));
+        this.opened = CompletableFuture.runAsync(() -> {
+            this.notes = notes.get();
+            this.events = events.get();
+        }, executor);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Loads notes and events in parallel on background threads, handing each batch to the consumers on the
+     * loading threads as soon as it is read. Changes, flushes and saves recorded meanwhile are held back until
+     * loading has finished; loaded items are only ever appended, so the changes still apply to the same
+     * positions. The writer thread itself stays free, so {@link #loadEventRange} does not wait for the load.
+     */
+    public CompletableFuture<Void> loadAsync(Consumer<List<Note>> noteBatches, Consumer<List<Event>> eventBatches) {
+        synchronized (this) {
+            loading = true;
+        }
+        ExecutorService loader = Executors.newFixedThreadPool(2, daemonThreads("storage-loader"));
+        CompletableFuture<Void> notesLoaded = opened.thenRunAsync(
+                () -> notes.loadAll(LOAD_BATCH_SIZE, batch -> noteBatches.accept(copies(batch, Note::copy))), loader);
+        CompletableFuture<Void> eventsLoaded = opened.thenRunAsync(() -> {
+            if (!events.isLoadedByRange()) {
+                events.loadAll(LOAD_BATCH_SIZE, batch -> eventBatches.accept(copies(batch, Event::copy)));
+            }
+        }, loader);
+        CompletableFuture<Void> loaded = CompletableFuture.allOf(notesLoaded, eventsLoaded);
+        loaded.whenComplete((result, error) -> {
+            loader.shutdown();
+            if (error != null) {
+                error.printStackTrace();
+            }
+            releaseHeldBack();
+        });
+        return loaded;
+    }
+
+    /**
+     * Queues the tasks held back while loading, in the order they were recorded.
+     */
+    private synchronized void releaseHeldBack() {
+        loading = false;
+        if (heldBack.isEmpty()) {
+            return;
+        }
+        heldBack.forEach(executor::execute);
+        heldBack.clear();
+        scheduleFlush();
+    }
+
+    /**
+     * Queues a task on the writer thread, or holds it back while loading.
+     */
+    private synchronized void queue(Runnable task) {
+        if (loading) {
+            heldBack.add(task);
+        } else {
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Whether events are loaded per visible range through {@link #loadEventRange} instead of all at startup.
+     * Known without opening the repositories; if the database cannot be opened, ranges of the JSON files that
+     * replace it load nothing, as those events are all loaded at startup.
+     */
+    public boolean isEventsLoadedByRange() {
+        return eventsLoadedByRange;
+    }
+
+    /**
+     * Loads the stored events between from and to (inclusive) that are not in memory yet on the writer thread,
+     * for {@link #takeLoadedEvents}. Several ranges may be in flight, so the events are queued in the order the
+     * repository appended them instead of being returned. Changes recorded after this call are applied after
+     * the load; changes held back by {@link #loadAsync} run later still. Like the loaded items, the events are
+     * appended, so changes made before they are taken still apply to the same positions.
+     *
+     * @return completes once the events can be taken, or exceptionally if the range could not be read
+     */
+    public CompletableFuture<Void> loadEventRange(LocalDate from, LocalDate to) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                rangeLoaded.addAll(copies(events.loadRange(from, to), Event::copy));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Removes and returns the events loaded by {@link #loadEventRange} so far, in the order they were loaded.
+     * The caller appends them to the end of its event list, always from the same thread.
+     */
+    public List<Event> takeLoadedEvents() {
+        List<Event> taken = new ArrayList<>();
+        for (Event event = rangeLoaded.poll(); event != null; event = rangeLoaded.poll()) {
+            taken.add(event);
+        }
+        return taken;
+    }
+
+    /**
+     * Finds the months of the stored events, loaded or not, in one of categories, on the writer thread.
+     * Recurring events are left out; they are loaded with the first range.
+     */
+    public CompletableFuture<Set<YearMonth>> findEventMonthsByCategory(Set<Category> categories) {
+        return findEventMonths(() -> {
+            List<Event> found = new ArrayList<>();
+            for (Category category : categories) {
+                found.addAll(events.findByCategory(category));
+            }
+            return found;
+        });
+    }
+
+    /**
+     * Finds the months of the stored events, loaded or not, having for each of terms (in lower case) a tag
+     * containing it, see {@link #findEventMonthsByCategory}.
+     */
+    public CompletableFuture<Set<YearMonth>> findEventMonthsByTags(List<String> terms) {
+        return findEventMonths(() -> events.findByTag(terms.get(0)).stream()
+                .filter(event -> terms.stream().allMatch(term -> event.getTags().stream().anyMatch(tag -> tag.toLowerCase().contains(term))))
+                .toList());
+    }
+
+    @FunctionalInterface
+    private interface Query {
+        List<Event> find() throws IOException;
+    }
+
+    private CompletableFuture<Set<YearMonth>> findEventMonths(Query query) {
+        return CompletableFuture.supplyAsync(() -> {
+            Set<YearMonth> months = new HashSet<>();
+            try {
+                for (Event event : query.find()) {
+                    if (!event.isRecurring() && event.getDateTime() != null) {
+                        months.add(YearMonth.from(event.getDateTime()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            return months;
+        }, executor);
+    }
+
+    /**
+     * Records that note was inserted at index.
+     */
+    public void noteAdded(int index, Note note) {
+        Note copy = note.copy();
+        apply(() -> notes.insert(index, copy));
+    }
+
+    /**
+     * Records that the note at index was edited.
+     */
+    public void noteUpdated(int index, Note note) {
+        Note copy = note.copy();
+        apply(() -> notes.update(index, copy));
+    }
+
+    /**
+     * Records that the note at index was removed.
+     */
+    public void noteRemoved(int index) {
+        apply(() -> notes.delete(index));
+    }
+
+    /**
+     * Records that event was inserted at index.
+     */
+    public void eventAdded(int index, Event event) {
+        Event copy = event.copy();
+        apply(() -> events.insert(index, copy));
+    }
+
+    /**
+     * Records that the event at index was edited.
+     */
+    public void eventUpdated(int index, Event event) {
+        Event copy = event.copy();
+        apply(() -> events.update(index, copy));
+    }
+
+    /**
+     * Records that the event at index was removed.
+     */
+    public void eventRemoved(int index) {
+        apply(() -> events.delete(index));
+    }
+
+    private static <T> List<T> copies(List<T> items, UnaryOperator<T> copy) {
+        List<T> copies = new ArrayList<>(items.size());
+        for (T item : items) {
+            copies.add(copy.apply(item));
+        }
+        return copies;
+    }
+
+    @FunctionalInterface
+    private interface Change {
+        void apply() throws IOException;
+    }
+
+    /**
+     * Queues a change behind earlier ones and restarts the debounce timer.
+     */
+    private void apply(Change change) {
+        queue(() -> {
+            try {
+                change.apply();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        scheduleFlush();
+    }
+
+    /**
+     * Restarts the debounce timer, unless changes have already been pending for longer than the maximum delay.
+     */
+    private synchronized void scheduleFlush() {
+        long now = System.currentTimeMillis();
+        if (pendingFlush == null || pendingFlush.isDone()) {
+            firstPendingChange = now;
+        } else if (now - firstPendingChange < maxDelayMillis) {
+            pendingFlush.cancel(false);
+        } else {
+            return; // Keep the already scheduled flush so a steady stream of edits cannot postpone it forever
+        }
+        pendingFlush = executor.schedule(this::flushQuietly, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flushQuietly() {
+        synchronized (this) {
+            if (loading) {
+                return; // The repositories are still being loaded; releasing the held back changes flushes them
+            }
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Makes the changes since the last flush durable.
+     */
+    private void flush() throws IOException {
+        notes.flush();
+        events.flush();
+    }
+
+    /**
+     * Saves both collections immediately, regardless of what changed.
+     */
+    public void saveAll() throws IOException {
+        callOnWriter(() -> {
+            notes.writeAll();
+            events.writeAll();
+            return null;
+        });
+    }
+
+    /**
+     * Cancels the pending debounce, writes outstanding changes and stops the writer thread.
+     */
+    public void shutdown() throws IOException {
+        synchronized (this) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+            }
+        }
+        try {
+            callOnWriter(() -> {
+                flush();
+                notes.close();
+                events.close();
+                return null;
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs a task on the writer thread after the queued changes, including those held back while loading, and
+     * waits for its result.
+     */
+    private <V> V callOnWriter(Callable<V> task) throws IOException {
+        FutureTask<V> future = new FutureTask<>(task);
+        queue(future);
+        return await(future);
+    }
+
+    private static <V> V await(Future<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for storage", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for one ordered collection. Changes address the collection by list index, in the order the
+ * in-memory list was changed, so a backend can keep its own view of the list in step with the UI's.
+ *
+ * <p>Items handed to a repository belong to it and are not modified by anyone else afterwards.
+ * Implementations are not thread safe; {@link PersistenceService} only calls them from its writer thread.
+ */
+public interface Repository<T> {
+
+    /**
+     * Loads all stored items in order, handing them to the consumer in batches of at most batchSize elements.
+     */
+    void loadAll(int batchSize, Consumer<List<T>> batchConsumer);
+
+    void insert(int index, T item) throws IOException;
+
+    void update(int index, T item) throws IOException;
+
+    void delete(int index) throws IOException;
+
+    /**
+     * Makes changes since the last flush durable. Called after a burst of changes has settled.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Writes the whole collection again, regardless of what changed.
+     */
+    void writeAll() throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,92 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded, file-based SQL database run in-process (H2 by default), shared by the note and event repositories.
+ * Changes are collected in one transaction that is committed when the repositories are flushed.
+ *
+ * <p>Event start times, categories and tags are indexed, so range and filter queries run in the database.
+ */
+class SqlDatabase {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS notes (id BIGINT AUTO_INCREMENT PRIMARY KEY, position INT NOT NULL,"
+                    + " title VARCHAR, content CLOB, category VARCHAR(16))",
+            "CREATE INDEX IF NOT EXISTS notes_position ON notes (position)",
+            "CREATE TABLE IF NOT EXISTS note_tags (owner_id BIGINT NOT NULL REFERENCES notes (id) ON DELETE CASCADE,"
+                    + " ordinal INT NOT NULL, tag VARCHAR NOT NULL, PRIMARY KEY (owner_id, ordinal))",
+            "CREATE TABLE IF NOT EXISTS events (id BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR,"
+                    + " start_time TIMESTAMP, end_time TIMESTAMP, description CLOB, category VARCHAR(16))",
+            "ALTER TABLE events ADD COLUMN IF NOT EXISTS recurrence VARCHAR",
+            "CREATE INDEX IF NOT EXISTS events_start_time ON events (start_time)",
+            "CREATE INDEX IF NOT EXISTS events_category ON events (category)",
+            "CREATE TABLE IF NOT EXISTS event_tags (owner_id BIGINT NOT NULL REFERENCES events (id) ON DELETE CASCADE,"
+                    + " ordinal INT NOT NULL, tag VARCHAR NOT NULL, PRIMARY KEY (owner_id, ordinal))"
+    };
+
+    private final Connection connection;
+    private int users;
+
+    private SqlDatabase(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Connects to the database at url, creating the tables on first use.
+     */
+    static SqlDatabase open(String url) throws IOException {
+        try {
+            Connection connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+            connection.setAutoCommit(false);
+            return new SqlDatabase(connection);
+        } catch (SQLException e) {
+            throw new IOException("Could not open database " + url, e);
+        }
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    synchronized boolean isOpen() {
+        return users >= 0;
+    }
+
+    /**
+     * Registers a repository using the connection; the connection is closed when the last one is released.
+     */
+    synchronized void retain() {
+        users++;
+    }
+
+    synchronized void release() throws IOException {
+        if (--users > 0) {
+            return;
+        }
+        users = -1;
+        try {
+            connection.commit();
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    void commit() throws IOException {
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Event;
+import com.example.model.Recurrence;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Events stored in the {@code events} table. Events are loaded a month at a time through the index on
+ * their start time, as the calendar shows them. Recurring events, whose rule is kept as JSON in the
+ * {@code recurrence} column, can occur in any month and are all loaded with the first range.
+ */
+class SqlEventRepository extends SqlRepository<Event> implements EventRepository {
+
+    private static final String STARTS_BETWEEN = "start_time >= ? AND start_time < ? AND recurrence IS NULL";
+    private static final String RECURRING = "recurrence IS NOT NULL";
+
+    private final Set<YearMonth> loadedMonths = new HashSet<>();
+    private boolean recurringLoaded;
+
+    SqlEventRepository(SqlDatabase database) {
+        super(database, "events", "event_tags",
+                new String[]{"title", "start_time", "end_time", "description", "category", "recurrence"}, false);
+    }
+
+    @Override
+    void bind(PreparedStatement statement, Event event) throws SQLException {
+        statement.setString(1, event.getTitle());
+        statement.setTimestamp(2, toTimestamp(event.getDateTime()));
+        statement.setTimestamp(3, toTimestamp(event.getEndDateTime()));
+        statement.setString(4, event.getDescription());
+        statement.setString(5, event.getCategory() == null ? null : event.getCategory().name());
+        try {
+            statement.setString(6, event.getRecurrence() == null ? null : DataStorage.toJson(event.getRecurrence()));
+        } catch (IOException e) {
+            throw new SQLException("Could not encode the recurrence of " + event.getTitle(), e);
+        }
+    }
+
+    @Override
+    Event read(ResultSet row) throws SQLException {
+        Event event = new Event();
+        event.setTitle(row.getString("title"));
+        event.setDateTime(toLocalDateTime(row.getTimestamp("start_time")));
+        event.setEndDateTime(toLocalDateTime(row.getTimestamp("end_time")));
+        event.setDescription(row.getString("description"));
+        String category = row.getString("category");
+        event.setCategory(category == null ? null : Category.valueOf(category));
+        String recurrence = row.getString("recurrence");
+        try {
+            event.setRecurrence(recurrence == null ? null : DataStorage.fromJson(recurrence, Recurrence.class));
+        } catch (IOException e) {
+            throw new SQLException("Could not decode the recurrence of " + event.getTitle(), e);
+        }
+        return event;
+    }
+
+    @Override
+    List<String> tagsOf(Event event) {
+        return event.getTags();
+    }
+
+    @Override
+    public boolean isLoadedByRange() {
+        return true;
+    }
+
+    @Override
+    public List<Event> loadRange(LocalDate from, LocalDate to) throws IOException {
+        List<Rows<Event>> read = new ArrayList<>();
+        if (!recurringLoaded) {
+            read.add(select(RECURRING, "id"));
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            if (!loadedMonths.contains(month)) {
+                read.add(select(STARTS_BETWEEN, "start_time",
+                        toTimestamp(month.atDay(1).atStartOfDay()), toTimestamp(month.plusMonths(1).atDay(1).atStartOfDay())));
+                months.add(month);
+            }
+        }
+        // Recorded only once everything is read, so a failed query leaves nothing half loaded
+        recurringLoaded = true;
+        loadedMonths.addAll(months);
+        List<Event> loaded = new ArrayList<>();
+        for (Rows<Event> rows : read) {
+            appendLoaded(rows);
+            loaded.addAll(rows.items());
+        }
+        return loaded;
+    }
+
+    /**
+     * Looked up through the index on the category column.
+     */
+    @Override
+    public List<Event> findByCategory(Category category) throws IOException {
+        return select("category = ?", "id", category.name()).items();
+    }
+
+    /**
+     * Matches parts of tags, as the search does, so the tag table is scanned; it is much narrower than the events.
+     */
+    @Override
+    public List<Event> findByTag(String term) throws IOException {
+        String pattern = "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return select("id IN (SELECT owner_id FROM event_tags WHERE LOWER(tag) LIKE ? ESCAPE '\\')", "id", pattern).items();
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.service;
+
+import com.example.model.Category;
+import com.example.model.Note;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Notes stored in the {@code notes} table, in list order.
+ */
+class SqlNoteRepository extends SqlRepository<Note> implements NoteRepository {
+
+    SqlNoteRepository(SqlDatabase database) {
+        super(database, "notes", "note_tags", new String[]{"title", "content", "category"}, true);
+    }
+
+    @Override
+    void bind(PreparedStatement statement, Note note) throws SQLException {
+        statement.setString(1, note.getTitle());
+        statement.setString(2, note.getContent());
+        statement.setString(3, note.getCategory() == null ? null : note.getCategory().name());
+    }
+
+    @Override
+    Note read(ResultSet row) throws SQLException {
+        Note note = new Note();
+        note.setTitle(row.getString("title"));
+        note.setContent(row.getString("content"));
+        String category = row.getString("category");
+        note.setCategory(category == null ? null : Category.valueOf(category));
+        return note;
+    }
+
+    @Override
+    List<String> tagsOf(Note note) {
+        return note.getTags();
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A collection stored as rows of a table in {@link SqlDatabase}, with its tags in a separate indexed table.
+ * The row id of every loaded item is kept by list index, so changes touch only the affected rows. Ordered
+ * collections also store the list index in a {@code position} column.
+ */
+abstract class SqlRepository<T> implements Repository<T> {
+
+    private final SqlDatabase database;
+    private final String table;
+    private final String tagTable;
+    private final String[] columns;
+    private final boolean ordered;
+    private final List<Long> ids = new ArrayList<>();
+
+    SqlRepository(SqlDatabase database, String table, String tagTable, String[] columns, boolean ordered) {
+        this.database = database;
+        this.table = table;
+        this.tagTable = tagTable;
+        this.columns = columns;
+        this.ordered = ordered;
+        database.retain();
+    }
+
+    /**
+     * Binds the columns of item to parameters 1 to {@code columns.length}.
+     */
+    abstract void bind(PreparedStatement statement, T item) throws SQLException;
+
+    /**
+     * Reads an item, without its tags, from the current row.
+     */
+    abstract T read(ResultSet row) throws SQLException;
+
+    abstract List<String> tagsOf(T item);
+
+    /**
+     * Rows returned by a query, with their ids.
+     */
+    record Rows<T>(List<Long> ids, List<T> items) {
+    }
+
+    /**
+     * Reads the rows matching condition (all rows if it is null) together with their tags.
+     */
+    Rows<T> select(String condition, String order, Object... parameters) throws IOException {
+        String where = condition == null ? "" : " WHERE " + condition;
+        Map<Long, T> items = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection().prepareStatement(
+                "SELECT id, " + String.join(", ", columns) + " FROM " + table + where + " ORDER BY " + order)) {
+            setParameters(statement, parameters);
+            try (ResultSet row = statement.executeQuery()) {
+                while (row.next()) {
+                    items.put(row.getLong("id"), read(row));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        if (items.isEmpty()) {
+            return new Rows<>(List.of(), List.of());
+        }
+        try (PreparedStatement statement = connection().prepareStatement("SELECT owner_id, tag FROM " + tagTable
+                + " WHERE owner_id IN (SELECT id FROM " + table + where + ") ORDER BY owner_id, ordinal")) {
+            setParameters(statement, parameters);
+            try (ResultSet row = statement.executeQuery()) {
+                while (row.next()) {
+                    T item = items.get(row.getLong("owner_id"));
+                    if (item != null) {
+                        tagsOf(item).add(row.getString("tag"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        return new Rows<>(new ArrayList<>(items.keySet()), new ArrayList<>(items.values()));
+    }
+
+    /**
+     * Appends rows that were handed to the caller to the end of the collection.
+     */
+    void appendLoaded(Rows<T> rows) {
+        ids.addAll(rows.ids());
+    }
+
+    @Override
+    public void loadAll(int batchSize, Consumer<List<T>> batchConsumer) {
+        ids.clear();
+        Rows<T> rows;
+        try {
+            rows = select(null, ordered ? "position" : "id");
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        appendLoaded(rows);
+        List<T> items = rows.items();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            batchConsumer.accept(new ArrayList<>(items.subList(from, Math.min(from + batchSize, items.size()))));
+        }
+    }
+
+    /**
+     * Copies items into an empty table, for example when switching from the JSON files. The items are only
+     * read if the table is empty.
+     */
+    void importIfEmpty(Supplier<List<T>> source) throws IOException {
+        try (Statement statement = connection().createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            count.next();
+            if (count.getLong(1) > 0) {
+                return;
+            }
+            List<T> items = source.get();
+            if (items.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                insertRow(i, items.get(i));
+            }
+            database.commit();
+            System.out.println("Imported " + items.size() + " " + table + " into the database.");
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * A row that could not be written is kept as a null id, so later indexes still line up.
+     */
+    @Override
+    public void insert(int index, T item) throws IOException {
+        Long id = null;
+        try {
+            if (ordered) {
+                execute("UPDATE " + table + " SET position = position + 1 WHERE position >= ?", index);
+            }
+            id = insertRow(index, item);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        } finally {
+            ids.add(index, id);
+        }
+    }
+
+    private long insertRow(int index, T item) throws SQLException {
+        String names = String.join(", ", columns) + (ordered ? ", position" : "");
+        String values = String.join(", ", Collections.nCopies(columns.length + (ordered ? 1 : 0), "?"));
+        long id;
+        try (PreparedStatement statement = connection().prepareStatement(
+                "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ")", Statement.RETURN_GENERATED_KEYS)) {
+            bind(statement, item);
+            if (ordered) {
+                statement.setInt(columns.length + 1, index);
+            }
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                id = keys.getLong(1);
+            }
+        }
+        insertTags(id, item);
+        return id;
+    }
+
+    private void insertTags(long id, T item) throws SQLException {
+        List<String> tags = tagsOf(item);
+        if (tags.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection().prepareStatement(
+                "INSERT INTO " + tagTable + " (owner_id, ordinal, tag) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < tags.size(); i++) {
+                statement.setLong(1, id);
+                statement.setInt(2, i);
+                statement.setString(3, tags.get(i));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public void update(int index, T item) throws IOException {
+        Long id = ids.get(index);
+        if (id == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection().prepareStatement(
+                "UPDATE " + table + " SET " + String.join(" = ?, ", columns) + " = ? WHERE id = ?")) {
+            bind(statement, item);
+            statement.setLong(columns.length + 1, id);
+            statement.executeUpdate();
+            execute("DELETE FROM " + tagTable + " WHERE owner_id = ?", id);
+            insertTags(id, item);
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void delete(int index) throws IOException {
+        Long id = ids.remove(index);
+        try {
+            if (id != null) {
+                execute("DELETE FROM " + table + " WHERE id = ?", id);
+            }
+            if (ordered) {
+                execute("UPDATE " + table + " SET position = position - 1 WHERE position > ?", index);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        database.commit();
+    }
+
+    /**
+     * Rows are written as changes arrive, so this only commits them.
+     */
+    @Override
+    public void writeAll() throws IOException {
+        database.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        database.release();
+    }
+
+    private Connection connection() {
+        return database.connection();
+    }
+
+    private void execute(String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection().prepareStatement(sql)) {
+            setParameters(statement, parameters);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void setParameters(PreparedStatement statement, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+    }
+}